@@ -0,0 +1,49 @@
+package com.rankhwa.backend.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON body of a GET /manhwa page, written the way the MVC message converter writes it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManhwaPageSerializationBenchmark {
+    @Param({"20", "100"})
+    public int size;
+
+    private ObjectMapper json;
+    private List<ManhwaSummary> items;
+    private ManhwaPage page;
+
+    @Setup
+    public void setup() {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        items = new ArrayList<>(size);
+        for (long id = 0; id < size; id++) {
+            items.add(new ManhwaSummary(id, "Solo Leveling " + id, "Chugong", 8.7, 1200,
+                    "https://s4.anilist.co/file/anilistcdn/media/manga/cover/large/bx" + id + ".jpg",
+                    "https://s4.anilist.co/file/anilistcdn/media/manga/banner/" + id + ".jpg",
+                    179, List.of("Action", "Adventure", "Fantasy"),
+                    "Solo Leveling", "Na Honjaman Level Up", "나 혼자만 레벨업"));
+        }
+        page = new ManhwaPage(items, "eyJzb3J0IjoicmF0aW5nIiwiaWQiOjQyfQ");
+    }
+
+    @Benchmark
+    public byte[] list() throws Exception {
+        return json.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] cursorPage() throws Exception {
+        return json.writeValueAsBytes(page);
+    }
+}
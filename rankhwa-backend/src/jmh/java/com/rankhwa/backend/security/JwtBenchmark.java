@@ -0,0 +1,40 @@
+package com.rankhwa.backend.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue (login) and verification (every authenticated request)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        System.setProperty("JWT_SECRET", "benchmark-secret-benchmark-secret-0123456789");
+        jwtUtil = new JwtUtil();
+        jwtUtil.init();
+        token = jwtUtil.generateToken(42L, "bench@rankhwa.dev", 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(42L, "bench@rankhwa.dev", 0);
+    }
+
+    @Benchmark
+    public Long validateAndGetUserId() {
+        return jwtUtil.validateAndGetUserId(token);
+    }
+
+    @Benchmark
+    public AuthUser authenticate() {
+        return jwtUtil.authenticate(token);
+    }
+}
@@ -0,0 +1,34 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+// ManhwaSummaryRow stand-in with the shape of a seeded AniList row
+record BenchRow(Long getId, String getTitle, String getAuthor, Double getAvgRating, Double getWeightedScore,
+                Integer getVoteCount,
+                String getCoverUrl, String getBannerUrl, Integer getChapters, LocalDate getReleaseDate,
+                String getGenres, String getTitles, String getTitleEnglish, String getTitleNative,
+                Long getRowVersion, Instant getUpdatedAt, String getSearchText, String getSearchJamo,
+                String getSearchChosung) implements ManhwaSummaryRow {
+
+    private static final List<String> GENRES = List.of(
+            "[\"Action\", \"Fantasy\"]",
+            "[\"Drama\", \"Romance\", \"Slice of Life\"]",
+            "[\"Action\", \"Adventure\", \"Fantasy\", \"Supernatural\"]",
+            "[\"Comedy\"]");
+
+    static BenchRow of(long id) {
+        return new BenchRow(id, "Solo Leveling " + id, "Chugong", 8.7, 8.6, 1200 + (int) (id % 500),
+                "https://s4.anilist.co/file/anilistcdn/media/manga/cover/large/bx" + id + ".jpg",
+                "https://s4.anilist.co/file/anilistcdn/media/manga/banner/" + id + ".jpg",
+                179, LocalDate.of(2018, 3, 4), GENRES.get((int) (id % GENRES.size())),
+                "{\"romaji\": \"Na Honjaman Level Up " + id + "\", \"english\": \"Solo Leveling\", \"native\": \"나 혼자만 레벨업\"}",
+                "Solo Leveling", "나 혼자만 레벨업", 1L, Instant.EPOCH,
+                "solo leveling " + id + "\nsolo leveling\n나 혼자만 레벨업\nna honjaman level up " + id,
+                "sololeveling" + id + "\nsololeveling\nㄴㅏㅎㅗㄴㅈㅏㅁㅏㄴㄹㅔㅂㅔㄹㅇㅓㅂ\nnahonjamanlevelup" + id,
+                "\n\nㄴㅎㅈㅁㄹㅂㅇ\n");
+    }
+}
@@ -0,0 +1,50 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.dto.ManhwaSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row -> ManhwaSummary mapping. "warm" is the steady state of list pages (decoded JSON reused per
+ * id), "cold" decodes every row as on first sight or after the row changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManhwaMapperBenchmark {
+    private static final int ROWS = 1024;
+
+    private ManhwaMapper mapper;
+    private BenchRow[] rows;
+    private int next;
+    private long coldId = 1_000_000;
+
+    @Setup
+    public void setup() {
+        mapper = new ManhwaMapper();
+        rows = new BenchRow[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = BenchRow.of(i);
+            mapper.toSummary(rows[i]);
+        }
+    }
+
+    @Benchmark
+    public ManhwaSummary toSummaryWarm() {
+        return mapper.toSummary(rows[next++ & (ROWS - 1)]);
+    }
+
+    @Benchmark
+    public ManhwaSummary toSummaryCold() {
+        return mapper.toSummary(BenchRow.of(coldId++));
+    }
+
+    @Benchmark
+    public Object parseGenres() {
+        return mapper.parseGenres(rows[next++ & (ROWS - 1)].getGenres());
+    }
+}
@@ -0,0 +1,98 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.RankhwaBackendApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RatingService.rate end to end (vote upsert, aggregate delta, change event) against a real
+ * Postgres. Uses an embedded instance unless bench.datasource.url (or BENCH_DATASOURCE_URL)
+ * points at a disposable database; benchmark users and manhwa are inserted into it.
+ * Embedded Postgres refuses to start as root, so use an external database there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class RatingServiceBenchmark {
+    private static final int USERS = 2_000;
+    private static final int MANHWA = 500;
+
+    private EmbeddedPostgres embedded;
+    private ConfigurableApplicationContext context;
+    private RatingService ratingService;
+    private long[] userIds;
+    private long[] manhwaIds;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        String url = setting("bench.datasource.url", "BENCH_DATASOURCE_URL");
+        String user = setting("bench.datasource.username", "BENCH_DATASOURCE_USERNAME");
+        String password = setting("bench.datasource.password", "BENCH_DATASOURCE_PASSWORD");
+        if (url == null) {
+            embedded = EmbeddedPostgres.builder().start();
+            url = embedded.getJdbcUrl("postgres", "postgres");
+            user = "postgres";
+            password = "";
+        }
+
+        System.setProperty("JWT_SECRET", "benchmark-secret-benchmark-secret-0123456789");
+        context = SpringApplication.run(RankhwaBackendApplication.class,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + (user == null ? "" : user),
+                "--spring.datasource.password=" + (password == null ? "" : password),
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--rankhwa.catalog.index.enabled=false",
+                "--rankhwa.ratings.ingest.mode=direct");
+        ratingService = context.getBean(RatingService.class);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        String run = Long.toString(System.nanoTime(), 36);
+        jdbc.update("""
+                INSERT INTO users (email, password_hash, display_name, auth_provider, token_version, created_at)
+                SELECT 'bench-' || ? || '-' || g || '@rankhwa.dev', 'x', 'bench', 'LOCAL', 0, now()
+                FROM generate_series(1, ?) g
+                """, run, USERS);
+        userIds = ids(jdbc, "SELECT id FROM users WHERE email LIKE ?", "bench-" + run + "-%");
+        jdbc.update("""
+                INSERT INTO manhwa (title, avg_rating, vote_count, genres, seed_popularity, row_version)
+                SELECT 'bench ' || ? || ' ' || g, 0, 0, '[]'::jsonb, 0, 0
+                FROM generate_series(1, ?) g
+                """, run, MANHWA);
+        manhwaIds = ids(jdbc, "SELECT id FROM manhwa WHERE title LIKE ?", "bench " + run + " %");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (context != null) context.close();
+        if (embedded != null) embedded.close();
+    }
+
+    // Mostly first votes with some re-votes, spread over many rows like real traffic
+    @Benchmark
+    public void rate() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        ratingService.rate(userIds[r.nextInt(userIds.length)], manhwaIds[r.nextInt(manhwaIds.length)],
+                1 + r.nextInt(10));
+    }
+
+    private static long[] ids(JdbcTemplate jdbc, String sql, String pattern) {
+        return jdbc.queryForList(sql, Long.class, pattern).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static String setting(String property, String env) {
+        String v = System.getProperty(property);
+        return v != null ? v : System.getenv(env);
+    }
+}
@@ -0,0 +1,123 @@
+package com.rankhwa.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement run through the application DataSource, JPA and JdbcTemplate
+ * alike: rankhwa.jdbc.statements by kind (query, update, batch, execute), the count and time
+ * of the open {@link QueryCounter}, and rankhwa.jdbc.slow for those over the slow threshold, of which
+ * sample-rate are logged with their SQL (never their parameters). Replaces show-sql.
+ */
+@Slf4j
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private static final int MAX_LOGGED_SQL = 2000;
+
+    private final MeterRegistry meters;
+    private final long slowNanos;
+    private final double sampleRate;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Counter slow;
+
+    public InstrumentedDataSource(DataSource target, MeterRegistry meters, long slowMs, double sampleRate) {
+        super(target);
+        this.meters = meters;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMs);
+        this.sampleRate = sampleRate;
+        this.slow = Counter.builder("rankhwa.jdbc.slow")
+                .description("Statements slower than the slow-query threshold")
+                .register(meters);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement s) {
+                        // prepared statements carry their SQL; plain ones get it per execute call
+                        String sql = args != null && args.length > 0 && args[0] instanceof String q ? q : null;
+                        return statement(s, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Object statement(Statement target, Class<?> type, String preparedSql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String kind = kind(method.getName());
+            if (kind == null) return invoke(target, method, args);
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String q ? q : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                record(kind, sql, System.nanoTime() - start);
+            }
+        };
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private void record(String kind, String sql, long nanos) {
+        timers.computeIfAbsent(kind, k -> Timer.builder("rankhwa.jdbc.statements")
+                        .description("JDBC statement execution")
+                        .tag("kind", k)
+                        .publishPercentileHistogram()
+                        .register(meters))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos >= slowNanos) {
+            slow.increment();
+            if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                String text = sql == null ? "?" : sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql;
+                QueryCounter request = QueryCounter.current();
+                log.warn("Slow {} ({} ms{}): {}", kind, TimeUnit.NANOSECONDS.toMillis(nanos),
+                        request != null ? ", statement " + (request.count() + 1) + " of this request" : "", text);
+            }
+        }
+        QueryCounter.record(nanos); // last: may throw when an enforced budget is exceeded
+    }
+
+    private static String kind(String method) {
+        return switch (method) {
+            case "executeQuery" -> "query";
+            case "executeUpdate", "executeLargeUpdate" -> "update";
+            case "executeBatch", "executeLargeBatch" -> "batch";
+            case "execute" -> "execute";
+            default -> null;
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.rankhwa.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+    // Wraps the application DataSource (the routing one when a replica is configured) in
+    // statement timing; static so that the post-processor does not initialize anything else early
+    @Bean
+    static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meters, Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String name) {
+                if (!"dataSource".equals(name) || !(bean instanceof DataSource ds)) return bean;
+                return new InstrumentedDataSource(ds, meters.getObject(),
+                        env.getProperty("rankhwa.jdbc.slow-query.threshold-ms", Long.class, 200L),
+                        env.getProperty("rankhwa.jdbc.slow-query.sample-rate", Double.class, 1.0));
+            }
+        };
+    }
+}
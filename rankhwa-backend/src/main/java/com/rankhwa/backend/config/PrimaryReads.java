@@ -0,0 +1,30 @@
+package com.rankhwa.backend.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads that must see every committed write even while the replica lags: loads into state
+ * shared by all users (the catalog index, catalog and count caches, the weighted-score prior),
+ * which would otherwise keep a stale row until their next refresh. Read-only transactions
+ * started inside {@link #call} run on the primary; without a replica it changes nothing.
+ */
+public final class PrimaryReads {
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> reads) {
+        if (ACTIVE.get() != null) return reads.get();
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    public static boolean active() {
+        return ACTIVE.get() != null;
+    }
+}
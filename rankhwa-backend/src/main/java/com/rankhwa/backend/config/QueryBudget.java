@@ -0,0 +1,18 @@
+package com.rankhwa.backend.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most JDBC statements one call of this handler should need, replacing
+ * rankhwa.query-budget.default-statements for it; statements the filters ran before it are
+ * not counted against it. What happens past it is
+ * rankhwa.query-budget.action (see {@link QueryCountFilter}).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int statements();
+}
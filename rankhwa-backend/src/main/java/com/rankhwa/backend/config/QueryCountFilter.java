@@ -0,0 +1,83 @@
+package com.rankhwa.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * JDBC statements per request as rankhwa.http.server.statements, tagged like
+ * http.server.requests (method, uri template), so an N+1 regression shows up as a shifted
+ * distribution for one endpoint.
+ *
+ * Each request also has a query budget: default-statements, or the handler's
+ * {@link QueryBudget}, and max-db-ms of statement time. Going over either is logged (action=log
+ * or fail); action=fail (tests and dev) also fails the request at the statement that goes over
+ * the statement budget. Time is never enforced: it depends on the machine, and is only known
+ * once the response may already be written. With headers=true (dev only: it buffers every body) responses carry
+ * X-Query-Count and X-Query-Time-Ms.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+    public enum Action { OFF, LOG, FAIL }
+
+    private final MeterRegistry meters;
+
+    @Value("${rankhwa.query-budget.action:log}")
+    private Action action;
+    @Value("${rankhwa.query-budget.default-statements:20}")
+    private int defaultStatements;
+    @Value("${rankhwa.query-budget.max-db-ms:1000}")
+    private long maxDbMs;
+    @Value("${rankhwa.query-budget.headers:false}")
+    private boolean headers;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req,
+                                    HttpServletResponse res,
+                                    FilterChain chain)
+        throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = headers ? new ContentCachingResponseWrapper(res) : null;
+        try (QueryCounter counter = QueryCounter.start()) {
+            counter.budget(defaultStatements, action == Action.FAIL);
+            try {
+                chain.doFilter(req, buffered != null ? buffered : res);
+            } finally {
+                Object uri = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String endpoint = req.getMethod() + " " + (uri == null ? "UNKNOWN" : uri);
+                DistributionSummary.builder("rankhwa.http.server.statements")
+                        .description("JDBC statements executed per request")
+                        .tag("method", req.getMethod())
+                        .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                        .serviceLevelObjectives(1, 2, 3, 5, 10, 20, 50, 100)
+                        .register(meters)
+                        .record(counter.count());
+                if (action != Action.OFF && (counter.overBudget() || counter.millis() > maxDbMs)) {
+                    log.warn("Query budget exceeded by {}: {} statements (budget {}), {} ms in the database (budget {})",
+                            endpoint, counter.count(), counter.budget(), counter.millis(), maxDbMs);
+                }
+                if (buffered != null) {
+                    buffered.setHeader("X-Query-Count", String.valueOf(counter.count()));
+                    buffered.setHeader("X-Query-Time-Ms", String.valueOf(counter.millis()));
+                    buffered.copyBodyToResponse();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.rankhwa.backend.config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC statements executed on the current thread since {@link #start}, and the time spent in
+ * them, as recorded by {@link InstrumentedDataSource}. Scopes nest: a statement counts towards
+ * every open one. A request is one scope (see {@link QueryCountFilter}); work handed to another
+ * thread, such as a catalog cache load, is not counted to it.
+ *
+ * A scope with an enforced budget fails the statement that goes over it.
+ */
+public final class QueryCounter implements AutoCloseable {
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private final QueryCounter outer;
+    private int count;
+    private long nanos;
+    private int budget; // 0 = none
+    private boolean enforced;
+
+    private QueryCounter(QueryCounter outer) {
+        this.outer = outer;
+    }
+
+    public static QueryCounter start() {
+        QueryCounter c = new QueryCounter(CURRENT.get());
+        CURRENT.set(c);
+        return c;
+    }
+
+    // The innermost open scope, null outside any
+    static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    static void record(long statementNanos) {
+        for (QueryCounter c = CURRENT.get(); c != null; c = c.outer) {
+            c.count++;
+            c.nanos += statementNanos;
+            if (c.enforced && c.overBudget()) {
+                throw new IllegalStateException("Query budget exceeded: statement " + c.count + " of at most " + c.budget);
+            }
+        }
+    }
+
+    void budget(int statements, boolean enforce) {
+        budget = statements;
+        enforced = enforce;
+    }
+
+    int budget() {
+        return budget;
+    }
+
+    boolean enforced() {
+        return enforced;
+    }
+
+    boolean overBudget() {
+        return budget > 0 && count > budget;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long millis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public void close() {
+        if (outer == null) CURRENT.remove();
+        else CURRENT.set(outer);
+    }
+}
@@ -0,0 +1,71 @@
+package com.rankhwa.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rankhwa.backend.security.AuthUser;
+import com.rankhwa.backend.service.RatingAggregatesChangedEvent;
+import com.rankhwa.backend.service.VoteChange;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Which read-only transactions must still go to the primary: every one inside a request that
+ * writes (POST, PUT, PATCH, DELETE), so it reads the rows it is about to change, and for
+ * pin-ms after such a request succeeded every one made for that user, so their next pages
+ * show the vote or list edit even while the replica lags. A queued vote pins its user again
+ * when its batch commits. Outside a request, only reads inside {@link PrimaryReads#call} do.
+ */
+public class ReadYourWrites implements HandlerInterceptor {
+    private static final Set<String> READS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Value("${rankhwa.datasource.replica.pin-ms:5000}")
+    private long pinMs;
+    @Value("${rankhwa.datasource.replica.max-pinned:100000}")
+    private long maxPinned;
+
+    private Cache<Long, Boolean> pinned;
+
+    @PostConstruct
+    void init() {
+        pinned = Caffeine.newBuilder()
+                .maximumSize(maxPinned)
+                .expireAfterWrite(Duration.ofMillis(pinMs))
+                .build();
+    }
+
+    public boolean requiresPrimary() {
+        if (PrimaryReads.active()) return true;
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs)) return false;
+        if (!READS.contains(attrs.getRequest().getMethod())) return true;
+        Long user = currentUser();
+        return user != null && pinned.getIfPresent(user) != null;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+        if (READS.contains(req.getMethod()) || ex != null || res.getStatus() >= 400) return;
+        Long user = currentUser();
+        if (user != null) pinned.put(user, Boolean.TRUE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAggregatesChanged(RatingAggregatesChangedEvent event) {
+        for (VoteChange v : event.votes()) pinned.put(v.userId(), Boolean.TRUE);
+    }
+
+    private static Long currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof AuthUser u ? u.id() : null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.rankhwa.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read replica routing, on when rankhwa.datasource.replica.url is set.
+ *
+ * Two Hikari pools, "primary" (spring.datasource.*) and "replica" (rankhwa.datasource.replica.*,
+ * credentials defaulting to the primary's), each sized and published on its own. The DataSource
+ * everything uses hands out lazy connections: a transaction marked read-only before its first
+ * statement (every Spring Data read, @Transactional(readOnly = true)) runs on the replica unless
+ * {@link ReadYourWrites} asks for the primary (or it runs inside {@link PrimaryReads#call}); everything else, and all writes, run on the primary.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty("rankhwa.datasource.replica.url")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+    private enum Target { PRIMARY, REPLICA }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    @ConfigurationProperties("rankhwa.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${rankhwa.datasource.replica.url}") String url,
+                                              @Value("${rankhwa.datasource.replica.username:}") String username,
+                                              @Value("${rankhwa.datasource.replica.password:}") String password) {
+        HikariDataSource ds = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(username.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        ds.setPoolName("replica");
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadYourWrites readYourWrites,
+                                 MeterRegistry meters) {
+        Counter toPrimary = Counter.builder("rankhwa.datasource.reads").tag("target", "primary")
+                .description("Read-only transactions by the pool they ran on").register(meters);
+        Counter toReplica = Counter.builder("rankhwa.datasource.reads").tag("target", "replica")
+                .description("Read-only transactions by the pool they ran on").register(meters);
+
+        AbstractRoutingDataSource reads = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                if (readYourWrites.requiresPrimary()) {
+                    toPrimary.increment();
+                    return Target.PRIMARY;
+                }
+                toReplica.increment();
+                return Target.REPLICA;
+            }
+        };
+        reads.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        reads.setLenientFallback(false);
+        reads.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(reads);
+        log.info("Read-only transactions routed to the replica pool");
+        return routing;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWrites());
+    }
+}
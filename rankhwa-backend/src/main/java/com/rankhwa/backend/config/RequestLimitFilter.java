@@ -0,0 +1,103 @@
+package com.rankhwa.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control: at most max-concurrent requests are handled at once, later ones wait up
+ * to queue-timeout-ms for a slot and are then answered 503 with Retry-After.
+ *
+ * On platform threads Tomcat's pool (server.tomcat.threads.max) already caps this, so unset
+ * the limit is off there: a lower one would also shed requests answered from memory. Virtual
+ * threads remove that cap, and thousands of requests would otherwise all queue on the
+ * connection pool and time out there together; with them on, unset max-concurrent is the
+ * primary pool size times requests-per-connection, so the wait happens here and not in
+ * Hikari's connection queue, and the rest are shed cheaply before security or any query runs.
+ * A positive max-concurrent applies in either mode.
+ *
+ * /actuator is never limited, so health probes answer under load.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10) // inside the HTTP observation filter, so 503s are measured
+@RequiredArgsConstructor
+public class RequestLimitFilter extends OncePerRequestFilter {
+    private final MeterRegistry meters;
+    private final Environment environment;
+
+    // -1 = derived from the pool with virtual threads, else off; 0 = off
+    @Value("${rankhwa.http.max-concurrent:-1}")
+    private int maxConcurrent;
+    @Value("${rankhwa.http.requests-per-connection:4}")
+    private int requestsPerConnection;
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+    @Value("${rankhwa.http.queue-timeout-ms:1000}")
+    private long queueTimeoutMs;
+
+    private Semaphore slots;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        if (maxConcurrent < 0) {
+            maxConcurrent = Threading.VIRTUAL.isActive(environment) ? poolSize * requestsPerConnection : 0;
+        }
+        slots = new Semaphore(Math.max(maxConcurrent, 0));
+        Gauge.builder("rankhwa.http.in-flight", slots, s -> maxConcurrent - s.availablePermits())
+                .description("Requests holding a slot")
+                .register(meters);
+        rejected = Counter.builder("rankhwa.http.rejected")
+                .description("Requests shed after waiting queue-timeout-ms for a slot")
+                .register(meters);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest req) {
+        return maxConcurrent <= 0 || req.getRequestURI().startsWith(req.getContextPath() + "/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req,
+                                    HttpServletResponse res,
+                                    FilterChain chain)
+        throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            res.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            res.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy, retry shortly");
+            return;
+        }
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            slots.release();
+        }
+    }
+}
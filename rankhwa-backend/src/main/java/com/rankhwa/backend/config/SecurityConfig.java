@@ -1,7 +1,10 @@
 package com.rankhwa.backend.config;
 
 import com.rankhwa.backend.security.JwtAuthFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -20,6 +23,10 @@ import java.util.List;
 public class SecurityConfig {
     @Autowired JwtAuthFilter jwtFilter;
 
+    // Scrapes are only served on the management port, which stays off the public ingress
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -30,9 +37,13 @@ public class SecurityConfig {
                                 "/users/me/**",
                                 "/manhwa/*/rating",
                                 "/lists/**").authenticated()
+                        .requestMatchers(this::isManagementScrape).permitAll()
+                        .requestMatchers(EndpointRequest.to("prometheus")).denyAll() // any other port
                         .requestMatchers(
                                         "/auth/**",
                                         "/health/**",
+                                        "/actuator/health/**",
+                                        "/error",
                                         "/users/*",
                                         "/manhwa",
                                         "/manhwa/",
@@ -45,6 +56,11 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private boolean isManagementScrape(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort
+                && EndpointRequest.to("prometheus").matches(request);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration cfg = new CorsConfiguration();
@@ -0,0 +1,93 @@
+package com.rankhwa.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads pinned to their carrier, e.g. blocking inside a synchronized block
+ * or a native frame, which holds the carrier like a platform thread would. Only present when
+ * virtual threads are active (spring.threads.virtual.enabled on Java 21+).
+ *
+ * Listens in-process to JFR's jdk.VirtualThreadPinned for pins longer than threshold-ms.
+ * Every pin is recorded in the rankhwa.threads.virtual.pinned timer; each distinct stack is
+ * logged once, at most max-stacks of them.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+public class VirtualThreadPinningMonitor {
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meters;
+
+    @Value("${rankhwa.threads.pinned.enabled:true}")
+    private boolean enabled;
+    @Value("${rankhwa.threads.pinned.threshold-ms:20}")
+    private long thresholdMs;
+    @Value("${rankhwa.threads.pinned.stack-depth:16}")
+    private int stackDepth;
+    @Value("${rankhwa.threads.pinned.max-stacks:100}")
+    private int maxStacks;
+
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+    private Timer pinned;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        pinned = Timer.builder("rankhwa.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier for longer than threshold-ms")
+                .register(meters);
+        stream = new RecordingStream();
+        stream.enable(PINNED).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED, this::onPinned);
+        stream.startAsync();
+        log.info("Watching for virtual threads pinned longer than {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) stream.close();
+    }
+
+    private void onPinned(RecordedEvent e) {
+        pinned.record(e.getDuration());
+        String stack = frames(e.getStackTrace());
+        if (reported.size() < maxStacks && reported.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms{}", e.getDuration().toMillis(), stack);
+        }
+    }
+
+    private String frames(RecordedStackTrace trace) {
+        if (trace == null) return " (no stack)";
+        StringBuilder out = new StringBuilder();
+        int n = 0;
+        for (RecordedFrame f : trace.getFrames()) {
+            if (n++ == stackDepth) {
+                out.append("\n\t...");
+                break;
+            }
+            out.append("\n\tat ").append(f.getMethod().getType().getName()).append('.')
+                    .append(f.getMethod().getName()).append(':').append(f.getLineNumber());
+        }
+        return out.toString();
+    }
+}
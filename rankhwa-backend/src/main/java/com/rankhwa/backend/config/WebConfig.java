@@ -0,0 +1,28 @@
+package com.rankhwa.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // a handler's @QueryBudget replaces the request's default budget, on top of whatever the
+        // filters before it ran
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+                QueryCounter counter = QueryCounter.current();
+                if (counter != null && handler instanceof HandlerMethod m && m.hasMethodAnnotation(QueryBudget.class)) {
+                    counter.budget(counter.count() + m.getMethodAnnotation(QueryBudget.class).statements(), counter.enforced());
+                }
+                return true;
+            }
+        });
+    }
+}
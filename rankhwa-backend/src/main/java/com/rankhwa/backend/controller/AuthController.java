@@ -5,23 +5,24 @@ import com.rankhwa.backend.dto.RegisterRequest;
 import com.rankhwa.backend.model.User;
 import com.rankhwa.backend.repository.UserRepository;
 import com.rankhwa.backend.security.JwtUtil;
+import com.rankhwa.backend.security.PasswordHasher;
 import com.rankhwa.backend.service.ListService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 public class AuthController {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
     private final ListService listService;
 
@@ -33,7 +34,7 @@ public class AuthController {
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHasher.hash("register", request.getPassword()));
         user.setDisplayName(request.getDisplayName());
         user.setAuthProvider(User.AuthProvider.LOCAL);
 
@@ -44,10 +45,12 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        return userRepository.findByEmail(req.getEmail())
-                .filter(u -> passwordEncoder.matches(req.getPassword(), u.getPasswordHash()))
-                .map(u -> Map.of("token", jwtUtil.generateToken(u.getId(), u.getEmail())))
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.status(401).body("Invalid login"));
+        Optional<User> user = userRepository.findByEmail(req.getEmail());
+        if (user.isEmpty()) return ResponseEntity.status(401).body("Invalid login");
+        User u = user.get();
+        PasswordHasher.Verification v = passwordHasher.verify("login", req.getPassword(), u.getPasswordHash());
+        if (!v.matches()) return ResponseEntity.status(401).body("Invalid login");
+        if (v.rehashed() != null) userRepository.replacePasswordHash(u.getId(), u.getPasswordHash(), v.rehashed());
+        return ResponseEntity.ok(Map.of("token", jwtUtil.generateToken(u.getId(), u.getEmail(), u.getTokenVersion())));
     }
 }
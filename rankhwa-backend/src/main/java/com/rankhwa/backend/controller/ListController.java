@@ -1,11 +1,13 @@
 package com.rankhwa.backend.controller;
 
+import com.rankhwa.backend.config.QueryBudget;
 import com.rankhwa.backend.dto.AddItemRequest;
+import com.rankhwa.backend.dto.BulkItemsRequest;
+import com.rankhwa.backend.dto.BulkItemsResult;
 import com.rankhwa.backend.dto.CreateListRequest;
 import com.rankhwa.backend.dto.ListDetail;
 import com.rankhwa.backend.dto.ListSummary;
-import com.rankhwa.backend.model.ListEntity;
-import com.rankhwa.backend.model.User;
+import com.rankhwa.backend.security.AuthUser;
 import com.rankhwa.backend.service.ListService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -21,50 +23,82 @@ public class ListController {
     private final ListService listService;
 
     @GetMapping
-    public List<ListSummary> myLists(@AuthenticationPrincipal User user) {
-        return listService.all(user);
+    @QueryBudget(statements = 1)
+    public List<ListSummary> myLists(@AuthenticationPrincipal AuthUser user) {
+        return listService.all(user.id());
     }
 
+    // GET /lists/{id}?expand=manhwa also returns the ManhwaSummary rows, in list order
     @GetMapping("/{listId}")
-    public ListDetail detail(@AuthenticationPrincipal User u,
-                             @PathVariable Long listId) {
-        ListEntity l = listService.getOwned(u, listId);
-        List<Long> ids = l.getItems().stream()
-                .map(li -> li.getManhwa().getId())
-                .toList();
-        return new ListDetail(l.getId(), l.getName(), l.isDefault(), ids);
+    @QueryBudget(statements = 3) // header, item ids, summaries the catalog cache misses
+    public ListDetail detail(@AuthenticationPrincipal AuthUser u,
+                             @PathVariable Long listId,
+                             @RequestParam(defaultValue = "") String expand) {
+        return listService.detail(u.id(), listId, "manhwa".equals(expand));
     }
 
     @PostMapping
-    public ListDetail create(@AuthenticationPrincipal User user,
+    public ListDetail create(@AuthenticationPrincipal AuthUser user,
                              @RequestBody CreateListRequest req) {
-        return listService.addList(user, req.name());
+        return listService.addList(user.id(), req.name());
     }
 
     @PatchMapping("/{listId}")
-    public void rename(@AuthenticationPrincipal User user,
+    public void rename(@AuthenticationPrincipal AuthUser user,
                        @PathVariable Long listId,
                        @RequestBody Map<String, String> body) {
-        listService.rename(user, listId, body.get("name"));
+        listService.rename(user.id(), listId, body.get("name"));
     }
 
     @DeleteMapping("/{listId}")
-    public void delete(@AuthenticationPrincipal User user,
+    public void delete(@AuthenticationPrincipal AuthUser user,
                        @PathVariable Long listId) {
-        listService.delete(user, listId);
+        listService.delete(user.id(), listId);
     }
 
     @PostMapping("/{listId}/items")
-    public void add(@AuthenticationPrincipal User user,
+    public void add(@AuthenticationPrincipal AuthUser user,
                     @PathVariable Long listId,
                     @RequestBody AddItemRequest req) {
-        listService.addItem(user, listId, req.manhwaId());
+        listService.addItem(user.id(), listId, req.manhwaId());
+    }
+
+    // --- Bulk: one transaction each, per-item results ---
+
+    @PostMapping("/{listId}/items/batch-add")
+    public BulkItemsResult addMany(@AuthenticationPrincipal AuthUser user,
+                                   @PathVariable Long listId,
+                                   @RequestBody BulkItemsRequest req) {
+        return listService.addItems(user.id(), listId, req.manhwaIds());
+    }
+
+    @PostMapping("/{listId}/items/batch-remove")
+    public BulkItemsResult removeMany(@AuthenticationPrincipal AuthUser user,
+                                      @PathVariable Long listId,
+                                      @RequestBody BulkItemsRequest req) {
+        return listService.removeItems(user.id(), listId, req.manhwaIds());
+    }
+
+    // body: { manhwaIds, targetListId }
+    @PostMapping("/{listId}/items/move")
+    public BulkItemsResult move(@AuthenticationPrincipal AuthUser user,
+                                @PathVariable Long listId,
+                                @RequestBody BulkItemsRequest req) {
+        return listService.moveItems(user.id(), listId, req.targetListId(), req.manhwaIds());
+    }
+
+    // Replaces the list contents with exactly these titles
+    @PutMapping("/{listId}/items")
+    public BulkItemsResult replace(@AuthenticationPrincipal AuthUser user,
+                                   @PathVariable Long listId,
+                                   @RequestBody BulkItemsRequest req) {
+        return listService.replaceItems(user.id(), listId, req.manhwaIds());
     }
 
     @DeleteMapping("/{listId}/items/{manhwaId}")
-    public void remove(@AuthenticationPrincipal User user,
+    public void remove(@AuthenticationPrincipal AuthUser user,
                        @PathVariable Long listId,
                        @PathVariable Long manhwaId) {
-        listService.removeItem(user, listId, manhwaId);
+        listService.removeItem(user.id(), listId, manhwaId);
     }
 }
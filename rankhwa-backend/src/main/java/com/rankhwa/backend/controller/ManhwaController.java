@@ -1,107 +1,233 @@
 package com.rankhwa.backend.controller;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rankhwa.backend.dto.HomepageSections;
 import com.rankhwa.backend.dto.ManhwaDetail;
+import com.rankhwa.backend.dto.ManhwaPage;
 import com.rankhwa.backend.dto.ManhwaSummary;
-import com.rankhwa.backend.model.Manhwa;
-import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.dto.Suggestion;
+import com.rankhwa.backend.search.CatalogCache;
+import com.rankhwa.backend.search.Leaderboards;
+import com.rankhwa.backend.search.Leaderboards.Ranking;
+import com.rankhwa.backend.search.ManhwaSearchService;
+import com.rankhwa.backend.search.SearchCriteria;
+import com.rankhwa.backend.search.SimilarTitles;
+import com.rankhwa.backend.search.TitleSuggester;
+import com.rankhwa.backend.search.TotalMode;
+import com.rankhwa.backend.search.Versioned;
+import com.rankhwa.backend.security.AuthUser;
+import com.rankhwa.backend.service.ManhwaVersion;
+import com.rankhwa.backend.service.RatingIngestService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Collections;
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/manhwa")
 @RequiredArgsConstructor
 public class ManhwaController {
-    private final ManhwaRepository manhwaRepository;
+    private final ManhwaSearchService searchService;
+    private final CatalogCache catalogCache;
+    private final RatingIngestService ratings;
+    private final Leaderboards leaderboards;
+    private final TitleSuggester suggester;
+    private final SimilarTitles similarTitles;
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Caches (browsers, the CDN) may keep the body but must revalidate it with If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    // ...except a page carrying the caller's own scores, which only the browser may keep
+    private static final CacheControl PRIVATE = CacheControl.noCache().cachePrivate();
+    private static final String MY_SCORE = "my_score";
 
-    private static String nodeText(JsonNode n, String key) {
-        return (n != null && n.hasNonNull(key)) ? n.get(key).asText() : null;
+    // GET /manhwa?page=0&size=20&sort=rating|weighted|date|relevance&query=solo
+    @GetMapping
+    public ResponseEntity<List<ManhwaSummary>> list(
+            WebRequest request,
+            @RequestParam(defaultValue = "") String query,
+            @RequestParam(required = false) Double min_rating,
+            @RequestParam(required = false) Integer min_votes,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "rating") String sort, // rating|weighted|date|title|relevance
+            @RequestParam(defaultValue = "") String genres,     // comma-separated
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "") String include,    // my_score
+            @AuthenticationPrincipal AuthUser user
+    ) {
+        SearchCriteria criteria = SearchCriteria.of(
+                query, min_rating, min_votes, year, genres, sort, page, size);
+        Versioned<List<ManhwaSummary>> result = catalogCache.search(criteria);
+        if (!wantsMyScore(include, user)) {
+            if (request.checkNotModified(result.etag(), millis(result.lastModified()))) return notModified();
+            return ok(result);
+        }
+
+        // the shared cached page stays anonymous; the caller's scores go on a copy
+        Map<Long, Integer> scores = scores(result.body(), user);
+        String etag = result.etag() + ".u" + user.id() + "." + Integer.toHexString(scores.hashCode());
+        if (request.checkNotModified(etag, millis(result.lastModified()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(PRIVATE)
+                    .varyBy(HttpHeaders.AUTHORIZATION).build();
+        }
+        var builder = ResponseEntity.ok().cacheControl(PRIVATE).varyBy(HttpHeaders.AUTHORIZATION).eTag(etag);
+        if (result.lastModified() != null) builder.lastModified(result.lastModified());
+        return builder.body(withMyScores(result.body(), scores));
     }
 
-    // GET /manhwa?page=0&size=20&sort=rating|date&query=solo
-    @GetMapping
-    public List<ManhwaSummary> list(
+    // GET /manhwa?...&total=none|has_more|estimate|exact -- same search, wrapped with result-size info
+    @GetMapping(params = {"total", "!cursor"})
+    public ManhwaPage listWithTotal(
+            @RequestParam String total,
             @RequestParam(defaultValue = "") String query,
             @RequestParam(required = false) Double min_rating,
             @RequestParam(required = false) Integer min_votes,
             @RequestParam(required = false) Integer year,
-            @RequestParam(defaultValue = "rating") String sort, // rating|date|title
+            @RequestParam(defaultValue = "rating") String sort, // rating|weighted|date|title|relevance
             @RequestParam(defaultValue = "") String genres,     // comma-separated
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "") String include,    // my_score
+            @AuthenticationPrincipal AuthUser user
+    ) {
+        SearchCriteria criteria = SearchCriteria.of(
+                query, min_rating, min_votes, year, genres, sort, page, size);
+        return personalize(searchService.searchPage(criteria, TotalMode.parse(total)), include, user);
+    }
+
+    // GET /manhwa?cursor=&sort=rating&size=20 -- keyset mode, pass back nextCursor for the next page
+    @GetMapping(params = "cursor")
+    public ManhwaPage seek(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "none") String total,
+            @RequestParam(defaultValue = "") String query,
+            @RequestParam(required = false) Double min_rating,
+            @RequestParam(required = false) Integer min_votes,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "rating") String sort, // rating|weighted|date|title
+            @RequestParam(defaultValue = "") String genres,     // comma-separated
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "") String include,    // my_score
+            @AuthenticationPrincipal AuthUser user
+    ) {
+        SearchCriteria criteria = SearchCriteria.of(
+                query, min_rating, min_votes, year, genres, sort, 0, size);
+        return personalize(searchService.seek(criteria, cursor, TotalMode.parse(total)), include, user);
+    }
+
+    // GET /manhwa/suggest?query=sol&size=8 -- typeahead completions over every title variant (see TitleSuggester)
+    @GetMapping("/suggest")
+    public List<Suggestion> suggest(
+            @RequestParam(defaultValue = "") String query,
+            @RequestParam(defaultValue = "8") int size
+    ) {
+        return suggester.suggest(query, size);
+    }
+
+    // --- Leaderboards: precomputed, served from memory (see Leaderboards) ---
+
+    // GET /manhwa/trending?genre=Action&size=20
+    @GetMapping("/trending")
+    public List<ManhwaSummary> trending(
+            @RequestParam(required = false) String genre,
             @RequestParam(defaultValue = "20") int size
     ) {
-        String[] genreArray = genres.isBlank()
-                ? new String[0]
-                : genres.split("\\s*,\\s*");
+        return leaderboards.top(Ranking.TRENDING, Leaderboards.scope(null, genre), size);
+    }
 
-        int offset = Math.max(page, 0) * Math.max(size, 1);
+    // GET /manhwa/popular?year=2024&size=20 -- most votes; year or genre, not both
+    @GetMapping("/popular")
+    public List<ManhwaSummary> popular(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String genre,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return leaderboards.top(Ranking.POPULAR, leaderboardScope(year, genre), size);
+    }
 
-        var rows = manhwaRepository.advancedSearch(
-                query,
-                min_rating,
-                min_votes,
-                year,
-                genreArray,
-                genreArray.length,
-                sort,
-                size,
-                offset
-        );
+    // GET /manhwa/top-rated?genre=Action&size=20 -- highest average among titles with enough votes
+    @GetMapping("/top-rated")
+    public List<ManhwaSummary> topRated(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String genre,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return leaderboards.top(Ranking.TOP_RATED, leaderboardScope(year, genre), size);
+    }
 
-        return rows.stream().map(this::toSummary).toList();
+    // GET /manhwa/homepage -- every homepage section in one call
+    @GetMapping("/homepage")
+    public HomepageSections homepage(@RequestParam(defaultValue = "12") int size) {
+        String thisYear = Leaderboards.scope(Year.now(ZoneOffset.UTC).getValue(), null);
+        return new HomepageSections(
+                leaderboards.top(Ranking.TRENDING, "all", size),
+                leaderboards.top(Ranking.POPULAR, thisYear, size),
+                leaderboards.top(Ranking.POPULAR, "all", size),
+                leaderboards.top(Ranking.TOP_RATED, "all", size));
+    }
 
+    private static String leaderboardScope(Integer year, String genre) {
+        if (year != null && genre != null && !genre.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pass year or genre, not both");
+        }
+        return Leaderboards.scope(year, genre);
     }
 
-    // GET /manhwa/{id}
+    // GET /manhwa/{id} -- If-None-Match is answered from the row version alone
     @GetMapping("/{id}")
-    public ManhwaDetail get(@PathVariable Long id) {
-        return manhwaRepository.findById(id).map(this::toDetail).orElseThrow();
-    }
-
-    // --- Mapping Helper Functions ---
-    private ManhwaSummary toSummary(Manhwa m) {
-        JsonNode titles = null;
-        try { titles = MAPPER.readTree(m.getTitles()); } catch (Exception ignored) {}
-        String english = m.getTitleEnglish();
-        String romaji  = nodeText(titles, "romaji");
-        String nativeT = m.getTitleNative();
-
-        return new ManhwaSummary(
-                m.getId(), m.getTitle(), m.getAuthor(),
-                m.getAvgRating(), m.getVoteCount(), m.getCoverUrl(),
-                m.getBannerUrl(), m.getChapters(),
-                parseGenres(m.getGenres()),
-                english, romaji, nativeT
-        );
-    }
-    private ManhwaDetail toDetail(Manhwa m) {
-        JsonNode titles = null;
-        try { titles = MAPPER.readTree(m.getTitles()); } catch (Exception ignored) {}
-        String english = m.getTitleEnglish();
-        String romaji  = nodeText(titles, "romaji");
-        String nativeT = m.getTitleNative();
-
-        return new ManhwaDetail(
-                m.getId(), m.getTitle(), m.getAuthor(), m.getDescription(),
-                m.getReleaseDate(), m.getAvgRating(), m.getVoteCount(), m.getCoverUrl(),
-                m.getBannerUrl(), m.getChapters(),
-                parseGenres(m.getGenres()),
-                english, romaji, nativeT
-        );
-    }
-    private List<String> parseGenres(String json) {
-        if (json == null || json.isBlank()) return Collections.emptyList();
-        try {
-            return MAPPER.readValue(json, new TypeReference<List<String>>() {});
-        } catch (Exception e) {
-            return Collections.emptyList();
-        }
+    public ResponseEntity<ManhwaDetail> get(@PathVariable Long id, WebRequest request) {
+        ManhwaVersion version = catalogCache.version(id).orElseThrow();
+        if (request.checkNotModified(version.etag(), millis(version.updatedAt()))) return notModified();
+        return ok(catalogCache.detail(id).orElseThrow());
+    }
+
+    // GET /manhwa/{id}/similar?size=10 -- precomputed neighbors by ratings and genres (see SimilarTitles)
+    @GetMapping("/{id}/similar")
+    public List<ManhwaSummary> similar(@PathVariable Long id, @RequestParam(defaultValue = "10") int size) {
+        return similarTitles.similar(id, size);
+    }
+
+    // --- ?include=my_score: one score lookup per page instead of one GET /manhwa/{id}/rating per card ---
+
+    private static boolean wantsMyScore(String include, AuthUser user) {
+        return user != null && List.of(include.split("\\s*,\\s*")).contains(MY_SCORE);
+    }
+
+    private Map<Long, Integer> scores(List<ManhwaSummary> rows, AuthUser user) {
+        return ratings.scores(user.id(), rows.stream().map(ManhwaSummary::id).toList());
+    }
+
+    private static List<ManhwaSummary> withMyScores(List<ManhwaSummary> rows, Map<Long, Integer> scores) {
+        return rows.stream().map(s -> s.withMyScore(scores.getOrDefault(s.id(), 0))).toList();
+    }
+
+    private ManhwaPage personalize(ManhwaPage page, String include, AuthUser user) {
+        if (!wantsMyScore(include, user)) return page;
+        return page.withItems(withMyScores(page.items(), scores(page.items(), user)));
+    }
+
+    private static <T> ResponseEntity<T> ok(Versioned<T> v) {
+        var builder = ResponseEntity.ok().cacheControl(REVALIDATE).eTag(v.etag());
+        if (v.lastModified() != null) builder.lastModified(v.lastModified());
+        return builder.body(v.body());
+    }
+
+    // checkNotModified has already set the status and validators
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+    }
+
+    private static long millis(Instant t) {
+        return t == null ? -1 : t.toEpochMilli();
     }
 }
@@ -1,8 +1,9 @@
 package com.rankhwa.backend.controller;
 
-import com.rankhwa.backend.model.User;
+import com.rankhwa.backend.config.QueryBudget;
+import com.rankhwa.backend.security.AuthUser;
 import com.rankhwa.backend.repository.RatingRepository;
-import com.rankhwa.backend.service.RatingService;
+import com.rankhwa.backend.service.RatingIngestService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -14,28 +15,46 @@ import java.util.Map;
 @RequestMapping("/manhwa/{id}/rating")
 @RequiredArgsConstructor
 public class RatingController {
-    private final RatingService svc;
+    private final RatingIngestService ingest;
     private final RatingRepository ratings;
 
     @PostMapping
+    @QueryBudget(statements = 5)
     public ResponseEntity<?> rate(
             @PathVariable Long id,
             @RequestBody Map<String, Integer> body,
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal AuthUser user
             ) {
         int score = body.getOrDefault("score", 0);
         if (score < 1 || score > 10) return ResponseEntity.badRequest().build();
 
-        svc.rate(user, id, score);
-        return ResponseEntity.ok().build();
+        return switch (ingest.rate(user.id(), id, score)) {
+            case APPLIED -> ResponseEntity.ok().build();
+            case ACCEPTED -> ResponseEntity.accepted().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
+    }
+
+    @DeleteMapping
+    @QueryBudget(statements = 4)
+    public ResponseEntity<?> unrate(
+            @PathVariable Long id,
+            @AuthenticationPrincipal AuthUser user) {
+        return switch (ingest.unrate(user.id(), id)) {
+            case APPLIED -> ResponseEntity.noContent().build();
+            case ACCEPTED -> ResponseEntity.accepted().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+        };
     }
 
     @GetMapping
+    @QueryBudget(statements = 1)
     public Map<String, Integer> myRating(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user) {
-        return ratings.findByUserIdAndManhwaId(user.getId(), id)
-                .map(r -> Map.of("score", r.getScore()))
+            @AuthenticationPrincipal AuthUser user) {
+        return ingest.pendingScore(user.id(), id)
+                .or(() -> ratings.findByUserIdAndManhwaId(user.id(), id).map(r -> r.getScore()))
+                .map(score -> Map.of("score", score))
                 .orElse(Map.of("score", 0));
     }
 
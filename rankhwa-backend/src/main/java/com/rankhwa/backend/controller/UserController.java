@@ -1,13 +1,25 @@
 package com.rankhwa.backend.controller;
 
+import com.rankhwa.backend.config.QueryBudget;
+import com.rankhwa.backend.dto.ManhwaSummary;
 import com.rankhwa.backend.dto.UserSelfResponse;
 import com.rankhwa.backend.dto.UserSummary;
 import com.rankhwa.backend.model.User;
 import com.rankhwa.backend.repository.UserRepository;
+import com.rankhwa.backend.security.AuthUser;
+import com.rankhwa.backend.security.TokenRevocations;
+import com.rankhwa.backend.security.UserCache;
+import com.rankhwa.backend.service.FeedService;
+import com.rankhwa.backend.service.RatingIngestService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,10 +27,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserController {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final TokenRevocations revocations;
+    private final RatingIngestService ratings;
+    private final FeedService feedService;
+
+    @Value("${rankhwa.ratings.lookup.max-ids:200}")
+    private int maxLookupIds;
 
     /* --- Current User --- */
     @GetMapping("/me")
-    public UserSelfResponse me(@AuthenticationPrincipal User user) {
+    public UserSelfResponse me(@AuthenticationPrincipal AuthUser principal) {
+        User user = userCache.get(principal.id())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
         return new UserSelfResponse(
                 user.getId(), user.getEmail(), user.getDisplayName(), user.getCreatedAt()
         );
@@ -26,20 +47,54 @@ public class UserController {
 
     @PatchMapping("/me")
     public UserSelfResponse updateMe(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal AuthUser principal,
             @RequestBody Map<String, String> body
             ) {
+        User user = userRepository.findById(principal.id())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
         if (body.containsKey("displayName"))
             user.setDisplayName(body.get("displayName"));
 
         // handle password update flow here later
         userRepository.save(user);
+        userCache.evict(user.getId());
 
         return new UserSelfResponse(
                 user.getId(), user.getEmail(), user.getDisplayName(), user.getCreatedAt()
         );
     }
 
+    // Log out everywhere: every token issued so far stops authenticating
+    @PostMapping("/me/logout-all")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logoutAll(@AuthenticationPrincipal AuthUser principal) {
+        revocations.revokeAll(principal.id());
+    }
+
+    // GET /users/me/ratings?ids=1,2,3 -> {"1": 8, "3": 10}; ids the caller has not rated are left out
+    @GetMapping("/me/ratings")
+    @QueryBudget(statements = 1)
+    public Map<Long, Integer> myRatings(
+            @AuthenticationPrincipal AuthUser principal,
+            @RequestParam List<Long> ids
+            ) {
+        var distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > maxLookupIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxLookupIds + " ids per lookup");
+        }
+        return ratings.scores(principal.id(), distinct);
+    }
+
+    // GET /users/me/feed?size=20 -- unseen titles ranked from the caller's ratings and lists (see FeedService)
+    @GetMapping("/me/feed")
+    public List<ManhwaSummary> feed(
+            @AuthenticationPrincipal AuthUser principal,
+            @RequestParam(defaultValue = "20") int size
+            ) {
+        return feedService.feed(principal.id(), size);
+    }
+
     /* --- Public Profile --- */
     @GetMapping("/{id}")
     public UserSummary publicProfile(@PathVariable Long id) {
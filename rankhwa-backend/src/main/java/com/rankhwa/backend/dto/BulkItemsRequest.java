@@ -0,0 +1,6 @@
+package com.rankhwa.backend.dto;
+
+import java.util.List;
+
+// targetListId is only read by the move endpoint
+public record BulkItemsRequest(List<Long> manhwaIds, Long targetListId) {}
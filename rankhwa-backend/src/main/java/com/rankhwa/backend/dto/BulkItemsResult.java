@@ -0,0 +1,9 @@
+package com.rankhwa.backend.dto;
+
+import java.util.List;
+
+public record BulkItemsResult(Long listId, List<ItemResult> results) {
+    public enum Status { ADDED, ALREADY_PRESENT, REMOVED, MOVED, NOT_IN_LIST, NOT_FOUND }
+
+    public record ItemResult(Long manhwaId, Status status) {}
+}
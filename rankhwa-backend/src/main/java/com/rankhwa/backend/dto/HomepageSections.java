@@ -0,0 +1,8 @@
+package com.rankhwa.backend.dto;
+
+import java.util.List;
+
+public record HomepageSections (List<ManhwaSummary> trending,
+                                List<ManhwaSummary> popularThisYear,
+                                List<ManhwaSummary> popularAllTime,
+                                List<ManhwaSummary> topRated){}
@@ -1,8 +1,16 @@
 package com.rankhwa.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+// items holds the ManhwaSummary rows in list order when the client asked for ?expand=manhwa
 public record ListDetail(Long id,
                          String name,
                          boolean isDefault,
-                         List<Long> manhwaIds) {}
+                         List<Long> manhwaIds,
+                         @JsonInclude(JsonInclude.Include.NON_NULL) List<ManhwaSummary> items) {
+    public ListDetail(Long id, String name, boolean isDefault, List<Long> manhwaIds) {
+        this(id, name, isDefault, manhwaIds, null);
+    }
+}
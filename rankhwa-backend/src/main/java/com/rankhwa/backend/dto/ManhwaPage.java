@@ -0,0 +1,27 @@
+package com.rankhwa.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Envelope form of GET /manhwa (cursor or total modes); unset fields are omitted
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ManhwaPage(
+        List<ManhwaSummary> items,
+        String nextCursor,  // null on the last page or outside cursor mode
+        Boolean hasMore,
+        Long total,
+        String totalKind    // exact | estimate
+) {
+    public ManhwaPage(List<ManhwaSummary> items, String nextCursor) {
+        this(items, nextCursor, nextCursor != null, null, null);
+    }
+
+    public ManhwaPage withItems(List<ManhwaSummary> items) {
+        return new ManhwaPage(items, nextCursor, hasMore, total, totalKind);
+    }
+
+    public ManhwaPage withTotal(Long total, String totalKind) {
+        return new ManhwaPage(items, nextCursor, hasMore, total, totalKind);
+    }
+}
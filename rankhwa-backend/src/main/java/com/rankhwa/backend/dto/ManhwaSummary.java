@@ -1,5 +1,7 @@
 package com.rankhwa.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public record ManhwaSummary (
@@ -14,5 +16,19 @@ public record ManhwaSummary (
         List<String> genres,
         String titleEnglish,
         String titleRomaji,
-        String titleNative
-){}
+        String titleNative,
+        // the caller's own score, only with ?include=my_score and a token (0 = not rated)
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer myScore
+){
+    public ManhwaSummary(Long id, String title, String author, Double avgRating, Integer voteCount,
+                         String coverUrl, String bannerUrl, Integer chapters, List<String> genres,
+                         String titleEnglish, String titleRomaji, String titleNative) {
+        this(id, title, author, avgRating, voteCount, coverUrl, bannerUrl, chapters, genres,
+                titleEnglish, titleRomaji, titleNative, null);
+    }
+
+    public ManhwaSummary withMyScore(Integer score) {
+        return new ManhwaSummary(id, title, author, avgRating, voteCount, coverUrl, bannerUrl, chapters, genres,
+                titleEnglish, titleRomaji, titleNative, score);
+    }
+}
@@ -0,0 +1,4 @@
+package com.rankhwa.backend.dto;
+
+// One typeahead completion; matchedTitle is the title variant the typed prefix completes
+public record Suggestion(Long id, String title, String matchedTitle, String coverUrl) {}
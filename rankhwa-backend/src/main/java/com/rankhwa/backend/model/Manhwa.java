@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
@@ -11,6 +12,7 @@ import java.time.LocalDate;
         name = "manhwa",
         indexes = {
                 @Index(name = "idx_manhwa_title", columnList = "title"),
+                // keyset pagination uses expression indexes, in schema.sql
                 @Index(name = "idx_manhwa_author", columnList = "author")
         }
 
@@ -39,9 +41,24 @@ public class Manhwa {
     private Double avgRating = 0.0;
     private Integer voteCount = 0;
 
+    // running SUM(score) over ratings; NULL until the first native vote adopts the row
+    @Column(name = "rating_sum")
+    private Long ratingSum;
+
+    // Bayesian average (sum + m * C) / (votes + m) against the prior in WeightedScoreService;
+    // kept by the rating delta statements, 0 until the first refresh sees a new row
+    @Column(name = "weighted_score", nullable = false, columnDefinition = "double precision default 0")
+    private Double weightedScore = 0.0;
+
     @Column(columnDefinition = "jsonb")
     private String genres;
 
+    // bumped by every write that changes the row (rating aggregates, seeder upserts); ETag source
+    @Column(name = "row_version", nullable = false, columnDefinition = "bigint default 0")
+    private Long rowVersion = 0L;
+    @Column(name = "updated_at", columnDefinition = "timestamp with time zone default now()")
+    private Instant updatedAt;
+
     private Integer chapters;
 
     // --- for anilist seeding ---
@@ -34,6 +34,10 @@ public class User {
     @CreationTimestamp
     private Instant createdAt;
 
+    // tokens carrying an older version (JWT claim "tv") are rejected; bumped by "log out everywhere"
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+
     public enum AuthProvider {
         LOCAL, GOOGLE
     }
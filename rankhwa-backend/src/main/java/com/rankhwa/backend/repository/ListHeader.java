@@ -0,0 +1,9 @@
+package com.rankhwa.backend.repository;
+
+// The lists row without its items; enough to check ownership and render a ListDetail
+public interface ListHeader {
+    Long getId();
+    Long getUserId();
+    String getName();
+    boolean getIsDefault();
+}
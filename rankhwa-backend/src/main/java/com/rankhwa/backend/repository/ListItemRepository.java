@@ -3,7 +3,21 @@ package com.rankhwa.backend.repository;
 import com.rankhwa.backend.model.ListItem;
 import com.rankhwa.backend.model.ListItemPK;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+@Transactional(readOnly = true)
 public interface ListItemRepository extends JpaRepository<ListItem, ListItemPK> {
     int countByListId(Long listId);
+
+    // Ids only, in the order they were added; served from the list_items primary key index
+    @Query("select li.id.manhwaId from ListItem li where li.id.listId = :listId order by li.addedAt, li.id.manhwaId")
+    List<Long> findManhwaIdsByListId(@Param("listId") Long listId);
+
+    // Every title on any of a user's lists, once
+    @Query("select distinct li.id.manhwaId from ListItem li where li.list.user.id = :userId")
+    List<Long> findManhwaIdsByUserId(@Param("userId") Long userId);
 }
@@ -1,11 +1,37 @@
 package com.rankhwa.backend.repository;
 
+import com.rankhwa.backend.dto.ListSummary;
 import com.rankhwa.backend.model.ListEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface ListRepository extends JpaRepository<ListEntity, Long> {
     List<ListEntity> findByUserId(Long userId);
     boolean existsByUserIdAndName(Long userId, String name);
+
+    // All of a user's lists with their item counts, grouped in one query (count a column: an
+    // empty list joins one all-NULL row, and count() of the composite key would still count it)
+    @Query("select new com.rankhwa.backend.dto.ListSummary(" +
+            "l.id, l.name, l.isDefault, cast(count(i.id.manhwaId) as Integer), l.createdAt) " +
+            "from ListEntity l left join l.items i " +
+            "where l.user.id = :userId " +
+            "group by l.id, l.name, l.isDefault, l.createdAt " +
+            "order by l.id")
+    List<ListSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    // List columns plus the owner id, without loading the owner or the items
+    @Query("select l.id as id, l.user.id as userId, l.name as name, l.isDefault as isDefault " +
+            "from ListEntity l where l.id = :id")
+    Optional<ListHeader> findHeader(@Param("id") Long id);
+
+    @Query("select l.id as id, l.user.id as userId, l.name as name, l.isDefault as isDefault " +
+            "from ListEntity l where l.id in :ids")
+    List<ListHeader> findHeaders(@Param("ids") Collection<Long> ids);
 }
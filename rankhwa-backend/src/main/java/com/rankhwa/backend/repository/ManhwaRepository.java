@@ -1,22 +1,48 @@
 package com.rankhwa.backend.repository;
 
 import com.rankhwa.backend.model.Manhwa;
+import com.rankhwa.backend.service.ManhwaVersion;
+import com.rankhwa.backend.service.RatingAggregate;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
+@Transactional(readOnly = true)
 public interface ManhwaRepository extends JpaRepository<Manhwa, Long> {
     Page<Manhwa> findByTitleContainingIgnoreCase(String q, Pageable page);
 
-    @Query(value = """
-    SELECT * FROM manhwa m
-    WHERE (:q = '' OR LOWER(m.title) LIKE LOWER(CONCAT('%', :q, '%')))
+    // Summary columns only (no description); jsonb is read as text for ManhwaMapper
+    String SUMMARY_COLUMNS = """
+    SELECT m.id, m.title, m.author, m.avg_rating AS avgRating, m.vote_count AS voteCount,
+           m.weighted_score AS weightedScore,
+           m.cover_url AS coverUrl, m.banner_url AS bannerUrl, m.chapters,
+           m.release_date AS releaseDate, CAST(m.genres AS text) AS genres,
+           CAST(m.titles AS text) AS titles, m.title_english AS titleEnglish,
+           m.title_native AS titleNative, m.row_version AS rowVersion, m.updated_at AS updatedAt,
+           m.search_text AS searchText, m.search_jamo AS searchJamo, m.search_chosung AS searchChosung
+    FROM manhwa m
+    """;
+
+    // Shared WHERE clause of the catalog search queries. The query matches any title variant as a
+    // literal substring (like_literal escapes its wildcards), or as a typo within pg_trgm's word
+    // similarity threshold; Korean input also as a jamo substring, and consonant-only input as initial
+    // consonants, which never hold a wildcard. schema.sql indexes all of them.
+    String SEARCH_FILTER = """
+      (:q = '' OR m.search_text LIKE CONCAT('%', like_literal(LOWER(:q)), '%') ESCAPE '\\'
+        OR LOWER(:q) <% m.search_text
+        OR (hangul_jamo(LOWER(:q)) <> ''
+            AND m.search_jamo LIKE CONCAT('%', like_literal(hangul_jamo(LOWER(:q))), '%') ESCAPE '\\')
+        OR (:q ~ '^\\s*[ㄱ-ㅎ][ㄱ-ㅎ\\s]*$' AND m.search_chosung LIKE CONCAT('%', hangul_chosung(:q), '%')))
       AND (:minRating IS NULL OR m.avg_rating >= :minRating)
       AND (:minVotes  IS NULL OR m.vote_count >= :minVotes)
       AND (:year      IS NULL OR EXTRACT(YEAR FROM m.release_date) = :year)
@@ -24,15 +50,22 @@ public interface ManhwaRepository extends JpaRepository<Manhwa, Long> {
         :genresCount = 0
         OR jsonb_exists_any(m.genres, CAST(:genres AS text[]))
       )
+    """;
+
+    // Same order as the seek queries below and CatalogIndex, so offset and cursor pages agree
+    // whichever path served them
+    @Query(value = SUMMARY_COLUMNS + "WHERE " + SEARCH_FILTER + """
     ORDER BY
-      CASE WHEN :sort = 'date'   THEN m.release_date END DESC,
-      CASE WHEN :sort = 'rating' THEN m.avg_rating  END DESC,
-      CASE WHEN :sort = 'title'  THEN m.title       END ASC,
-      m.avg_rating DESC, m.vote_count DESC
+      CASE WHEN :sort = 'relevance' THEN word_similarity(LOWER(:q), m.search_text) END DESC,
+      CASE WHEN :sort = 'date'   THEN COALESCE(m.release_date, DATE 'infinity') END DESC,
+      CASE WHEN :sort = 'weighted' THEN COALESCE(m.weighted_score, 0) END DESC,
+      CASE WHEN :sort = 'title'  THEN lower(m.title COLLATE "C") END ASC,
+      CASE WHEN :sort = 'title'  THEN m.id END ASC,
+      COALESCE(m.avg_rating, 'Infinity') DESC, COALESCE(m.vote_count, 2147483647) DESC, m.id DESC
     LIMIT :size OFFSET :offset
     """,
             nativeQuery = true)
-    List<Manhwa> advancedSearch(
+    List<ManhwaSummaryRow> advancedSearch(
             @Param("q") String q,
             @Param("minRating") Double minRating,
             @Param("minVotes") Integer minVotes,
@@ -44,17 +77,7 @@ public interface ManhwaRepository extends JpaRepository<Manhwa, Long> {
             @Param("offset") int offset
     );
 
-    @Query(value = """
-    SELECT COUNT(*) FROM manhwa m
-    WHERE (:q = '' OR LOWER(m.title) LIKE LOWER(CONCAT('%', :q, '%')))
-      AND (:minRating IS NULL OR m.avg_rating >= :minRating)
-      AND (:minVotes  IS NULL OR m.vote_count >= :minVotes)
-      AND (:year      IS NULL OR EXTRACT(YEAR FROM m.release_date) = :year)
-      AND (
-        :genresCount = 0
-        OR jsonb_exists_any(m.genres, CAST(:genres AS text[]))
-      )
-    """,
+    @Query(value = "SELECT COUNT(*) FROM manhwa m WHERE " + SEARCH_FILTER,
             nativeQuery = true)
     long advancedSearchCount(
             @Param("q") String q,
@@ -64,4 +87,249 @@ public interface ManhwaRepository extends JpaRepository<Manhwa, Long> {
             @Param("genres") String[] genres,
             @Param("genresCount") int genresCount
     );
+
+    @Query(value = SUMMARY_COLUMNS, nativeQuery = true)
+    List<ManhwaSummaryRow> findAllSummaryRows();
+
+    // One round trip for any number of ids (a single array parameter, not an IN list)
+    @Query(value = SUMMARY_COLUMNS + "WHERE m.id = ANY(CAST(:ids AS bigint[]))", nativeQuery = true)
+    List<ManhwaSummaryRow> findSummaryRowsByIdIn(@Param("ids") Long[] ids);
+
+    // Planner-only row estimate for the same predicate; nothing is executed
+    @Query(value = "EXPLAIN SELECT 1 FROM manhwa m WHERE " + SEARCH_FILTER,
+            nativeQuery = true)
+    List<String> explainSearch(
+            @Param("q") String q,
+            @Param("minRating") Double minRating,
+            @Param("minVotes") Integer minVotes,
+            @Param("year") Integer year,
+            @Param("genres") String[] genres,
+            @Param("genresCount") int genresCount
+    );
+
+    // --- Typeahead: every title variant plus the popularity signals, no other columns ---
+
+    String SUGGEST_COLUMNS = """
+    SELECT m.id, m.title, m.title_english AS titleEnglish, m.title_native AS titleNative,
+           m.titles ->> 'romaji' AS titleRomaji, m.cover_url AS coverUrl,
+           m.seed_popularity AS seedPopularity, m.vote_count AS voteCount
+    FROM manhwa m
+    """;
+
+    @Query(value = SUGGEST_COLUMNS, nativeQuery = true)
+    List<SuggestRow> findAllSuggestRows();
+
+    @Query(value = SUGGEST_COLUMNS + "WHERE m.id = ANY(CAST(:ids AS bigint[]))", nativeQuery = true)
+    List<SuggestRow> findSuggestRowsByIdIn(@Param("ids") Long[] ids);
+
+    interface SuggestRow {
+        Long getId();
+        String getTitle();
+        String getTitleEnglish();
+        String getTitleNative();
+        String getTitleRomaji();
+        String getCoverUrl();
+        Integer getSeedPopularity();
+        Integer getVoteCount();
+    }
+
+    // --- Keyset (seek) pages: one query per sort so each can walk its index from the cursor ---
+    // The first page passes a sentinel key that sorts before every row instead of a NULL check,
+    // which would stop the planner from using the seek as an index condition. Nullable columns are
+    // compared through the COALESCE keys of SeekCursor, which schema.sql indexes; a bare NULL in
+    // a row comparison would drop the row from every page.
+
+    @Query(value = SUMMARY_COLUMNS + "WHERE " + SEARCH_FILTER + """
+      AND (COALESCE(m.avg_rating, 'Infinity'), COALESCE(m.vote_count, 2147483647), m.id)
+          < (:afterRating, :afterVotes, :afterId)
+    ORDER BY COALESCE(m.avg_rating, 'Infinity') DESC, COALESCE(m.vote_count, 2147483647) DESC, m.id DESC
+    LIMIT :size
+    """,
+            nativeQuery = true)
+    List<ManhwaSummaryRow> seekByRating(
+            @Param("q") String q,
+            @Param("minRating") Double minRating,
+            @Param("minVotes") Integer minVotes,
+            @Param("year") Integer year,
+            @Param("genres") String[] genres,
+            @Param("genresCount") int genresCount,
+            @Param("afterRating") double afterRating,
+            @Param("afterVotes") int afterVotes,
+            @Param("afterId") long afterId,
+            @Param("size") int size
+    );
+
+    @Query(value = SUMMARY_COLUMNS + "WHERE " + SEARCH_FILTER + """
+      AND (COALESCE(m.weighted_score, 0), COALESCE(m.avg_rating, 'Infinity'), COALESCE(m.vote_count, 2147483647), m.id)
+          < (:afterWeighted, :afterRating, :afterVotes, :afterId)
+    ORDER BY COALESCE(m.weighted_score, 0) DESC, COALESCE(m.avg_rating, 'Infinity') DESC,
+             COALESCE(m.vote_count, 2147483647) DESC, m.id DESC
+    LIMIT :size
+    """,
+            nativeQuery = true)
+    List<ManhwaSummaryRow> seekByWeighted(
+            @Param("q") String q,
+            @Param("minRating") Double minRating,
+            @Param("minVotes") Integer minVotes,
+            @Param("year") Integer year,
+            @Param("genres") String[] genres,
+            @Param("genresCount") int genresCount,
+            @Param("afterWeighted") double afterWeighted,
+            @Param("afterRating") double afterRating,
+            @Param("afterVotes") int afterVotes,
+            @Param("afterId") long afterId,
+            @Param("size") int size
+    );
+
+    // Undated rows sort first, as in advancedSearch
+    @Query(value = SUMMARY_COLUMNS + "WHERE " + SEARCH_FILTER + """
+      AND (COALESCE(m.release_date, DATE 'infinity'), COALESCE(m.avg_rating, 'Infinity'),
+           COALESCE(m.vote_count, 2147483647), m.id)
+          < (CAST(:afterDate AS date), :afterRating, :afterVotes, :afterId)
+    ORDER BY COALESCE(m.release_date, DATE 'infinity') DESC, COALESCE(m.avg_rating, 'Infinity') DESC,
+             COALESCE(m.vote_count, 2147483647) DESC, m.id DESC
+    LIMIT :size
+    """,
+            nativeQuery = true)
+    List<ManhwaSummaryRow> seekByDate(
+            @Param("q") String q,
+            @Param("minRating") Double minRating,
+            @Param("minVotes") Integer minVotes,
+            @Param("year") Integer year,
+            @Param("genres") String[] genres,
+            @Param("genresCount") int genresCount,
+            @Param("afterDate") String afterDate,
+            @Param("afterRating") double afterRating,
+            @Param("afterVotes") int afterVotes,
+            @Param("afterId") long afterId,
+            @Param("size") int size
+    );
+
+    @Query(value = SUMMARY_COLUMNS + "WHERE " + SEARCH_FILTER + """
+      AND (lower(m.title COLLATE "C"), m.id) > (lower(CAST(:afterTitle AS text) COLLATE "C"), :afterId)
+    ORDER BY lower(m.title COLLATE "C") ASC, m.id ASC
+    LIMIT :size
+    """,
+            nativeQuery = true)
+    List<ManhwaSummaryRow> seekByTitle(
+            @Param("q") String q,
+            @Param("minRating") Double minRating,
+            @Param("minVotes") Integer minVotes,
+            @Param("year") Integer year,
+            @Param("genres") String[] genres,
+            @Param("genresCount") int genresCount,
+            @Param("afterTitle") String afterTitle,
+            @Param("afterId") long afterId,
+            @Param("size") int size
+    );
+
+    // --- Rating aggregates ---
+
+    // O(1) delta against the running sum/count; touches nothing until the row has been adopted.
+    // weighted_score is spelled exactly as in recomputeWeightedScores so a refresh finds it unchanged.
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE manhwa
+    SET rating_sum = rating_sum + :scoreDelta,
+        vote_count = vote_count + :countDelta,
+        avg_rating = CASE WHEN vote_count + :countDelta > 0
+                          THEN CAST(rating_sum + :scoreDelta AS double precision) / (vote_count + :countDelta)
+                          ELSE 0 END,
+        weighted_score = (CAST(rating_sum + :scoreDelta AS double precision) + :priorVotes * :priorMean)
+                         / (vote_count + :countDelta + :priorVotes),
+        row_version = row_version + 1,
+        updated_at = now()
+    WHERE id = :id AND rating_sum IS NOT NULL
+    """,
+            nativeQuery = true)
+    int applyRatingDelta(@Param("id") Long id,
+                         @Param("scoreDelta") long scoreDelta,
+                         @Param("countDelta") int countDelta,
+                         @Param("priorVotes") int priorVotes,
+                         @Param("priorMean") double priorMean);
+
+    // Full recompute from the ratings table; adopts rows that have no running sum yet
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE manhwa m
+    SET rating_sum = r.s,
+        vote_count = r.c,
+        avg_rating = CASE WHEN r.c > 0 THEN CAST(r.s AS double precision) / r.c ELSE 0 END,
+        weighted_score = (CAST(r.s AS double precision) + :priorVotes * :priorMean) / (r.c + :priorVotes),
+        row_version = m.row_version + 1,
+        updated_at = now()
+    FROM (SELECT COALESCE(SUM(score), 0) AS s, COUNT(*) AS c
+          FROM ratings WHERE manhwa_id = :id) r
+    WHERE m.id = :id
+    """,
+            nativeQuery = true)
+    int recomputeRatingAggregate(@Param("id") Long id,
+                                 @Param("priorVotes") int priorVotes,
+                                 @Param("priorMean") double priorMean);
+
+    @Query(value = """
+    SELECT m.id FROM manhwa m
+    LEFT JOIN (SELECT manhwa_id, SUM(score) AS s, COUNT(*) AS c
+               FROM ratings GROUP BY manhwa_id) r ON r.manhwa_id = m.id
+    WHERE (m.rating_sum IS NOT NULL OR r.c IS NOT NULL)
+      AND (m.rating_sum IS DISTINCT FROM COALESCE(r.s, 0)
+           OR m.vote_count IS DISTINCT FROM CAST(COALESCE(r.c, 0) AS integer))
+    """,
+            nativeQuery = true)
+    List<Long> findRatingAggregateDrift();
+
+    @Query("select new com.rankhwa.backend.service.RatingAggregate(m.id, m.avgRating, m.voteCount, m.weightedScore, " +
+            "m.rowVersion, m.updatedAt) " +
+            "from Manhwa m where m.id = :id")
+    RatingAggregate findRatingAggregate(@Param("id") Long id);
+
+    // --- Weighted score prior ---
+
+    // Vote-weighted mean over every rated row: C in the weighted score
+    @Query(value = """
+    SELECT SUM(COALESCE(CAST(rating_sum AS double precision), avg_rating * vote_count)) / NULLIF(SUM(vote_count), 0)
+    FROM manhwa WHERE vote_count > 0
+    """,
+            nativeQuery = true)
+    Double findGlobalMeanRating();
+
+    // Rows adopted by a native vote use the exact running sum, seeded rows their external average.
+    // Only rows whose score actually changes are written.
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE manhwa m
+    SET weighted_score = w.score
+    FROM (SELECT id, (COALESCE(CAST(rating_sum AS double precision), COALESCE(avg_rating, 0) * COALESCE(vote_count, 0))
+                      + :priorVotes * :priorMean) / (COALESCE(vote_count, 0) + :priorVotes) AS score
+          FROM manhwa) w
+    WHERE m.id = w.id AND m.weighted_score IS DISTINCT FROM w.score
+    """,
+            nativeQuery = true)
+    int recomputeWeightedScores(@Param("priorVotes") int priorVotes, @Param("priorMean") double priorMean);
+
+    // The C the scores were last computed with; none if that was for another prior-votes
+    @Query(value = "SELECT prior_mean FROM weighted_score_prior WHERE prior_votes = :priorVotes", nativeQuery = true)
+    Double findAppliedPriorMean(@Param("priorVotes") int priorVotes);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO weighted_score_prior (id, prior_votes, prior_mean) VALUES (true, :priorVotes, :priorMean)
+    ON CONFLICT (id) DO UPDATE SET prior_votes = EXCLUDED.prior_votes, prior_mean = EXCLUDED.prior_mean
+    """,
+            nativeQuery = true)
+    void saveAppliedPrior(@Param("priorVotes") int priorVotes, @Param("priorMean") double priorMean);
+
+    // --- Conditional GET validators; primary-key lookups that never load the entity ---
+
+    @Query("select new com.rankhwa.backend.service.ManhwaVersion(m.id, m.rowVersion, m.updatedAt) " +
+            "from Manhwa m where m.id = :id")
+    Optional<ManhwaVersion> findVersion(@Param("id") Long id);
+
+    @Query("select new com.rankhwa.backend.service.ManhwaVersion(m.id, m.rowVersion, m.updatedAt) " +
+            "from Manhwa m where m.id in :ids")
+    List<ManhwaVersion> findVersions(@Param("ids") Collection<Long> ids);
 }
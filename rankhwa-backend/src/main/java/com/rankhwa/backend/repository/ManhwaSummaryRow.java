@@ -0,0 +1,32 @@
+package com.rankhwa.backend.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Columns the list path needs, without description. jsonb columns come back as text and are
+ * decoded (and cached) by ManhwaMapper. releaseDate is only here for sorting and cursors,
+ * the search forms (every title variant lower-cased, and its Hangul jamo and initial consonants)
+ * only for the in-memory catalog index.
+ */
+public interface ManhwaSummaryRow {
+    Long getId();
+    String getTitle();
+    String getAuthor();
+    Double getAvgRating();
+    Double getWeightedScore();
+    Integer getVoteCount();
+    String getCoverUrl();
+    String getBannerUrl();
+    Integer getChapters();
+    LocalDate getReleaseDate();
+    String getGenres();
+    String getTitles();
+    String getTitleEnglish();
+    String getTitleNative();
+    Long getRowVersion();
+    Instant getUpdatedAt();
+    String getSearchText();
+    String getSearchJamo();
+    String getSearchChosung();
+}
@@ -4,13 +4,47 @@ import com.rankhwa.backend.model.Rating;
 import com.rankhwa.backend.model.RatingPK;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface RatingRepository extends JpaRepository<Rating, RatingPK> {
     Optional<Rating> findByUserIdAndManhwaId(Long userId, Long manhwaId);
 
-    @Query("select avg(r.score) from Rating r where r.manhwa.id = :manhwaId")
-    Double computeAverage(Long manhwaId);
-    int countByManhwaId(Long manhwaId);
+    // One primary-key index scan for a whole page of cards
+    @Query("select r.id.manhwaId as manhwaId, r.score as score from Rating r " +
+            "where r.id.userId = :userId and r.id.manhwaId in :manhwaIds")
+    List<ScoreRow> findScores(@Param("userId") Long userId, @Param("manhwaIds") Collection<Long> manhwaIds);
+
+    // Every score of one user, from the ratings primary key
+    @Query("select r.id.manhwaId as manhwaId, r.score as score from Rating r where r.id.userId = :userId")
+    List<ScoreRow> findAllScores(@Param("userId") Long userId);
+
+    interface ScoreRow {
+        Long getManhwaId();
+        int getScore();
+    }
+
+    // Per manhwa: log(sum(exp(lambda * (updated_at - landmark)))) over votes newer than :since,
+    // i.e. the decayed vote count at the landmark in log space. :since bounds how negative it gets.
+    @Query(value = """
+            SELECT manhwa_id AS manhwaId,
+                   CAST(ln(sum(exp(:lambda * (extract(epoch FROM updated_at) - :landmark)))) AS double precision) AS logScore
+            FROM ratings
+            WHERE updated_at > :since
+            GROUP BY manhwa_id
+            """, nativeQuery = true)
+    List<ActivityRow> findRecentActivity(@Param("lambda") double lambda,
+                                         @Param("landmark") long landmarkEpochSecond,
+                                         @Param("since") Instant since);
+
+    interface ActivityRow {
+        Long getManhwaId();
+        double getLogScore();
+    }
 }
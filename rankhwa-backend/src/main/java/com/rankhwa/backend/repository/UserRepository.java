@@ -2,10 +2,35 @@ package com.rankhwa.backend.repository;
 
 import com.rankhwa.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Re-hash on login; a no-op when the hash changed since it was read
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :rehashed where u.id = :id and u.passwordHash = :old")
+    int replacePasswordHash(@Param("id") Long id, @Param("old") String old, @Param("rehashed") String rehashed);
+
+    // --- Token revocation ---
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersion(@Param("id") Long id);
+
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokenVersion > 0")
+    List<UserTokenVersion> findRevokedTokenVersions();
 }
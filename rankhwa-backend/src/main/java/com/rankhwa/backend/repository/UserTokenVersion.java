@@ -0,0 +1,7 @@
+package com.rankhwa.backend.repository;
+
+// users.token_version for users who have revoked their tokens at least once
+public interface UserTokenVersion {
+    Long getId();
+    int getTokenVersion();
+}
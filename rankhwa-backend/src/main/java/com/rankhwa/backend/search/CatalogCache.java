@@ -0,0 +1,300 @@
+package com.rankhwa.backend.search;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rankhwa.backend.config.PrimaryReads;
+import com.rankhwa.backend.dto.ManhwaDetail;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.service.ManhwaMapper;
+import com.rankhwa.backend.service.ManhwaVersion;
+import com.rankhwa.backend.service.RatingAggregate;
+import com.rankhwa.backend.service.RatingAggregatesChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Response cache in front of the catalog reads: GET /manhwa pages keyed by the normalized
+ * search, and GET /manhwa/{id} keyed by id. Both are the same for every caller.
+ *
+ * Caffeine gives bounded W-TinyLFU eviction, one load per key however many requests miss at
+ * once, and stale-while-revalidate: after refresh-ms an entry is still served while a single
+ * background reload replaces it. Writes invalidate only what they can change: a rating drops
+ * the detail at once, and every invalidate-ms one pass over the ids written since the last
+ * refreshes the pages listing them (found through a reverse index, not by scanning) and the
+ * pages whose order or rating filter they could have moved into; an index reload that found
+ * seeder changes does the same for the changed rows. Pages are never dropped for a write, only
+ * reloaded in the background, and a page is reloaded again until one load has started after
+ * the write (pages record the write generation their load started at), so a reload that was
+ * already running with the old values does not stick.
+ *
+ * Every entry carries the ETag and Last-Modified of the rows it was built from, so a
+ * conditional GET can be answered from the entry without serializing it.
+ *
+ * Loads and reloads block on Postgres, so they run on the application task executor (virtual
+ * threads when spring.threads.virtual.enabled) rather than Caffeine's default common pool.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+    private final ManhwaSearchService searchService;
+    private final ManhwaRepository manhwaRepository;
+    private final CatalogIndex catalogIndex;
+    private final ManhwaMapper mapper;
+    private final MeterRegistry meters;
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private final Executor loaders;
+
+    @Value("${rankhwa.catalog.cache.enabled:true}")
+    private boolean enabled;
+    @Value("${rankhwa.catalog.cache.max-pages:10000}")
+    private long maxPages;
+    @Value("${rankhwa.catalog.cache.max-details:50000}")
+    private long maxDetails;
+    @Value("${rankhwa.catalog.cache.refresh-ms:30000}")
+    private long refreshMs;
+    @Value("${rankhwa.catalog.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    private AsyncLoadingCache<SearchCriteria, Versioned<List<ManhwaSummary>>> pages;
+    private AsyncLoadingCache<Long, Versioned<ManhwaDetail>> details;
+
+    private final PageIndex pageIndex = new PageIndex();
+    private final AtomicLong writes = new AtomicLong();
+    // written ids -> generation of their latest write, waiting for the next flush
+    private final Map<Long, Long> changedAggregates = new ConcurrentHashMap<>();
+    private final Map<Long, Long> changedRows = new ConcurrentHashMap<>();
+    // pages that missed a write -> its generation, reloaded until a load has seen it
+    private final Map<SearchCriteria, Long> stalePages = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .refreshAfterWrite(Duration.ofMillis(refreshMs))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .executor(loaders)
+                .<SearchCriteria, Versioned<List<ManhwaSummary>>>removalListener((c, page, cause) -> {
+                    if (c != null && page != null) pageIndex.remove(c, page.body());
+                })
+                .recordStats()
+                .buildAsync(c -> PrimaryReads.call(() -> loadIndexedPage(c)));
+        details = Caffeine.newBuilder()
+                .maximumSize(maxDetails)
+                .refreshAfterWrite(Duration.ofMillis(refreshMs))
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .executor(loaders)
+                .recordStats()
+                .buildAsync(id -> PrimaryReads.call(() -> loadDetail(id)).orElse(null));
+        CaffeineCacheMetrics.monitor(meters, pages, "catalog.pages");
+        CaffeineCacheMetrics.monitor(meters, details, "catalog.details");
+    }
+
+    public Versioned<List<ManhwaSummary>> search(SearchCriteria c) {
+        if (!enabled) return loadPage(c);
+        return pages.get(c.normalized()).join();
+    }
+
+    public Optional<Versioned<ManhwaDetail>> detail(Long id) {
+        if (!enabled) return loadDetail(id);
+        return Optional.ofNullable(details.get(id).join());
+    }
+
+    // Validators only: the index's version column, else a primary-key lookup of two columns
+    public Optional<ManhwaVersion> version(Long id) {
+        ManhwaVersion v = catalogIndex.version(id);
+        return v != null ? Optional.of(v) : manhwaRepository.findVersion(id);
+    }
+
+    // After the index has applied the same aggregates (see CatalogIndex#onAggregatesChanged).
+    // Only O(ids) here, on the committing thread; pages are left to flushInvalidations.
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAggregatesChanged(RatingAggregatesChangedEvent event) {
+        if (!enabled || event.aggregates().isEmpty()) return;
+        long generation = writes.incrementAndGet();
+        for (RatingAggregate a : event.aggregates()) {
+            details.synchronous().invalidate(a.manhwaId());
+            changedAggregates.merge(a.manhwaId(), generation, Math::max);
+        }
+    }
+
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        if (!enabled) return;
+        long generation = writes.incrementAndGet();
+        details.synchronous().invalidateAll(event.changedIds());
+        for (Long id : event.changedIds()) changedRows.merge(id, generation, Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.catalog.cache.invalidate-ms:250}")
+    public void flushInvalidations() {
+        if (!enabled) return;
+        markStale(drain(changedRows), false);
+        markStale(drain(changedAggregates), true);
+
+        for (var e : stalePages.entrySet()) {
+            SearchCriteria c = e.getKey();
+            if (!pages.asMap().containsKey(c) || pageIndex.generation(c) >= e.getValue()) {
+                stalePages.remove(c, e.getValue());
+            } else {
+                // keep serving it while it reloads; an in-flight reload is shared, and checked again next pass
+                pages.synchronous().refresh(c);
+            }
+        }
+    }
+
+    private void markStale(Map<Long, Long> changed, boolean aggregatesOnly) {
+        if (changed.isEmpty()) return;
+        // pages listing a written row
+        for (var e : changed.entrySet()) {
+            for (SearchCriteria c : pageIndex.listing(e.getKey())) {
+                if (pageIndex.generation(c) < e.getValue()) stalePages.merge(c, e.getValue(), Math::max);
+            }
+        }
+        // pages still loading, and pages the rows could have moved into
+        for (SearchCriteria c : pages.asMap().keySet()) {
+            long loadedAt = pageIndex.generation(c);
+            long missed = -1;
+            Set<Long> ids = new HashSet<>();
+            for (var e : changed.entrySet()) {
+                if (e.getValue() > loadedAt) {
+                    ids.add(e.getKey());
+                    missed = Math.max(missed, e.getValue());
+                }
+            }
+            if (ids.isEmpty()) continue;
+            if (loadedAt < 0 || mayShift(c, ids, aggregatesOnly)) stalePages.merge(c, missed, Math::max);
+        }
+    }
+
+    // Removes only entries still mapped to the value read, so a newer write waits for the next pass
+    private static Map<Long, Long> drain(Map<Long, Long> pending) {
+        Map<Long, Long> out = new HashMap<>();
+        for (var e : pending.entrySet()) {
+            out.put(e.getKey(), e.getValue());
+            pending.remove(e.getKey(), e.getValue());
+        }
+        return out;
+    }
+
+    private boolean mayShift(SearchCriteria c, Set<Long> ids, boolean aggregatesOnly) {
+        // the title order does not look at ratings
+        boolean ratingSensitive = !"title".equals(c.sort()) || c.minRating() != null || c.minVotes() != null;
+        if (aggregatesOnly && !ratingSensitive) return false;
+        for (Long id : ids) {
+            if (!aggregatesOnly || catalogIndex.mayMatch(id, c)) return true;
+        }
+        return false;
+    }
+
+    // Which cached pages list each manhwa id, and the write generation each page's load started at
+    private static final class PageIndex {
+        private record Entry(List<ManhwaSummary> rows, long generation) {}
+
+        private final Map<SearchCriteria, Entry> pages = new HashMap<>();
+        private final Map<Long, Set<SearchCriteria>> byId = new HashMap<>();
+
+        synchronized void put(SearchCriteria c, List<ManhwaSummary> rows, long generation) {
+            Entry old = pages.put(c, new Entry(rows, generation));
+            if (old != null) unlink(c, old.rows());
+            for (ManhwaSummary s : rows) byId.computeIfAbsent(s.id(), k -> new HashSet<>()).add(c);
+        }
+
+        // Only if the page still holds these rows: a reload may already have replaced them
+        synchronized void remove(SearchCriteria c, List<ManhwaSummary> rows) {
+            Entry e = pages.get(c);
+            if (e == null || e.rows() != rows) return;
+            pages.remove(c);
+            unlink(c, rows);
+        }
+
+        synchronized List<SearchCriteria> listing(Long id) {
+            Set<SearchCriteria> keys = byId.get(id);
+            return keys == null ? List.of() : List.copyOf(keys);
+        }
+
+        // -1 while the page has not loaded
+        synchronized long generation(SearchCriteria c) {
+            Entry e = pages.get(c);
+            return e == null ? -1 : e.generation();
+        }
+
+        private void unlink(SearchCriteria c, List<ManhwaSummary> rows) {
+            for (ManhwaSummary s : rows) {
+                Set<SearchCriteria> keys = byId.get(s.id());
+                if (keys != null && keys.remove(c) && keys.isEmpty()) byId.remove(s.id());
+            }
+        }
+    }
+
+    // --- Loaders ---
+
+    private Versioned<List<ManhwaSummary>> loadIndexedPage(SearchCriteria c) {
+        long generation = writes.get();
+        Versioned<List<ManhwaSummary>> page = loadPage(c);
+        pageIndex.put(c, page.body(), generation);
+        return page;
+    }
+
+    private Optional<Versioned<ManhwaDetail>> loadDetail(Long id) {
+        return manhwaRepository.findById(id).map(m -> new Versioned<>(mapper.toDetail(m),
+                new ManhwaVersion(m.getId(), m.getRowVersion(), m.getUpdatedAt()).etag(), m.getUpdatedAt()));
+    }
+
+    // The page ETag hashes the (id, version) sequence, so it changes when any row changes or moves
+    private Versioned<List<ManhwaSummary>> loadPage(SearchCriteria c) {
+        List<ManhwaSummary> rows = searchService.search(c);
+        Map<Long, ManhwaVersion> versions = versions(rows);
+
+        long h = 1125899906842597L;
+        Instant lastModified = null;
+        for (ManhwaSummary row : rows) {
+            ManhwaVersion v = versions.get(row.id());
+            h = 31 * h + row.id();
+            h = 31 * h + (v == null || v.version() == null ? -1 : v.version());
+            if (v != null && v.updatedAt() != null && (lastModified == null || v.updatedAt().isAfter(lastModified))) {
+                lastModified = v.updatedAt();
+            }
+        }
+        return new Versioned<>(rows, "p" + rows.size() + "." + Long.toHexString(h), lastModified);
+    }
+
+    private Map<Long, ManhwaVersion> versions(List<ManhwaSummary> rows) {
+        Map<Long, ManhwaVersion> out = new HashMap<>(rows.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (ManhwaSummary row : rows) {
+            ManhwaVersion v = catalogIndex.version(row.id());
+            if (v != null) out.put(row.id(), v);
+            else missing.add(row.id());
+        }
+        if (!missing.isEmpty()) {
+            for (ManhwaVersion v : manhwaRepository.findVersions(missing)) out.put(v.id(), v);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,691 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.config.PrimaryReads;
+import com.rankhwa.backend.dto.ManhwaPage;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+import com.rankhwa.backend.service.ManhwaMapper;
+import com.rankhwa.backend.service.ManhwaVersion;
+import com.rankhwa.backend.service.RatingAggregate;
+import com.rankhwa.backend.service.RatingAggregatesChangedEvent;
+import com.rankhwa.backend.service.WeightedScoresRecomputedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-optimized, in-process copy of the manhwa catalog that answers the GET /manhwa
+ * filter/sort/paging contract without touching Postgres.
+ *
+ * Rows live in columnar primitive arrays ordered by id, genres are one bitset per genre,
+ * the text of every title variant (also spelled as Hangul jamo and initial consonants) is
+ * covered by substring and word trigram indexes, and every supported sort except query
+ * relevance keeps a precomputed row order. Snapshots are immutable; rating writes swap in a
+ * copy with the changed columns and repositioned rows, and a scheduled full reload picks up
+ * seeder upserts and announces the rows it found changed with a {@link CatalogReloadedEvent}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogIndex {
+    private final ManhwaRepository manhwaRepository;
+    private final ManhwaMapper mapper;
+    private final ApplicationEventPublisher events;
+
+    @Value("${rankhwa.catalog.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile Snapshot snapshot;
+
+    // aggregates applied while a reload is reading the table, replayed onto the fresh snapshot
+    private Map<Long, RatingAggregate> appliedDuringReload;
+
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    public int size() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : s.ids.length;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) reload();
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.catalog.refresh-ms:600000}",
+            initialDelayString = "${rankhwa.catalog.refresh-ms:600000}")
+    public void scheduledReload() {
+        if (enabled) reload();
+    }
+
+    public void reload() {
+        synchronized (this) {
+            appliedDuringReload = new LinkedHashMap<>();
+        }
+        try {
+            long start = System.nanoTime();
+            Snapshot fresh = Snapshot.build(PrimaryReads.call(manhwaRepository::findAllSummaryRows), mapper);
+            Snapshot previous;
+            synchronized (this) {
+                if (!appliedDuringReload.isEmpty()) {
+                    fresh = fresh.withAggregates(appliedDuringReload.values());
+                }
+                previous = snapshot;
+                snapshot = fresh;
+            }
+            log.info("Catalog index loaded {} rows ({} search, {} word, {} jamo, {} chosung trigrams) in {} ms",
+                    fresh.ids.length, fresh.searchGrams.gramCount(), fresh.wordGrams.gramCount(),
+                    fresh.jamoGrams.gramCount(), fresh.chosungGrams.gramCount(), (System.nanoTime() - start) / 1_000_000);
+            if (previous != null) {
+                Set<Long> changed = fresh.changedSince(previous);
+                if (!changed.isEmpty()) events.publishEvent(new CatalogReloadedEvent(changed));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Catalog index reload failed, search falls back to SQL until the next attempt", e);
+        } finally {
+            synchronized (this) {
+                appliedDuringReload = null;
+            }
+        }
+    }
+
+    // Runs ahead of other listeners so anything they recompute from the index sees the new values
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAggregatesChanged(RatingAggregatesChangedEvent event) {
+        apply(event.aggregates());
+    }
+
+    // A prior refresh rewrote weighted scores outside of any rating write
+    @EventListener
+    public void onWeightedScoresRecomputed(WeightedScoresRecomputedEvent event) {
+        if (enabled && snapshot != null) reload();
+    }
+
+    public synchronized void apply(Collection<RatingAggregate> aggregates) {
+        if (appliedDuringReload != null) {
+            for (RatingAggregate a : aggregates) appliedDuringReload.put(a.manhwaId(), a);
+        }
+        Snapshot s = snapshot;
+        if (s != null) snapshot = s.withAggregates(aggregates);
+    }
+
+    public List<ManhwaSummary> search(SearchCriteria c) {
+        return search(c, c.offset(), c.size());
+    }
+
+    public List<ManhwaSummary> search(SearchCriteria c, int offset, int limit) {
+        Snapshot s = snapshot;
+        int size = Math.max(limit, 0);
+        List<ManhwaSummary> out = new ArrayList<>(Math.min(size, 64));
+        if (size == 0) return out;
+
+        Matcher m = s.matcher(c);
+        boolean relevance = "relevance".equals(c.sortKey());
+        int matched = 0;
+        for (int row : relevance ? s.byRelevance(m) : s.order(c.sort())) {
+            if (!relevance && !m.test(row)) continue;
+            if (matched++ < offset) continue;
+            out.add(s.summaries[row]);
+            if (out.size() == size) break;
+        }
+        return out;
+    }
+
+    /**
+     * Keyset page: binary-search the sort order for the first row after the cursor key, then
+     * scan forward. Rows that changed rank since the previous page are neither repeated nor
+     * skipped relative to the cursor row.
+     */
+    public ManhwaPage seek(SearchCriteria c, SeekCursor after) {
+        Snapshot s = snapshot;
+        String sort = c.sortKey();
+        int[] order = s.order(sort);
+        int size = Math.max(c.size(), 1);
+
+        int from = 0;
+        if (after != null) {
+            int lo = 0, hi = order.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (s.compareKey(sort, after, order[mid]) < 0) hi = mid;
+                else lo = mid + 1;
+            }
+            from = lo;
+        }
+
+        Matcher m = s.matcher(c);
+        List<ManhwaSummary> items = new ArrayList<>(Math.min(size, 64));
+        int last = -1;
+        String next = null;
+        for (int i = from; i < order.length; i++) {
+            int row = order[i];
+            if (!m.test(row)) continue;
+            if (items.size() == size) {
+                next = s.cursorAt(sort, last).encode();
+                break;
+            }
+            items.add(s.summaries[row]);
+            last = row;
+        }
+        return new ManhwaPage(items, next);
+    }
+
+    public long count(SearchCriteria c) {
+        Snapshot s = snapshot;
+        Matcher m = s.matcher(c);
+        long n = 0;
+        BitSet candidates = m.candidates;
+        if (candidates != null) {
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                if (m.test(row)) n++;
+            }
+        } else {
+            for (int row = 0; row < s.ids.length; row++) {
+                if (m.test(row)) n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * False only when the row's titles, year or genres rule it out of {@code c}; the rating and
+     * vote thresholds are ignored. Rows the index does not hold (yet) may match.
+     */
+    public boolean mayMatch(long id, SearchCriteria c) {
+        Snapshot s = snapshot;
+        if (!enabled || s == null) return true;
+        int row = Arrays.binarySearch(s.ids, id);
+        if (row < 0) return true;
+
+        if (c.year() != null && s.year[row] != c.year()) return false;
+        if (!c.genres().isEmpty()) {
+            boolean any = false;
+            for (String g : c.genres()) {
+                BitSet rows = s.genreRows.get(g);
+                if (rows != null && rows.get(row)) { any = true; break; }
+            }
+            if (!any) return false;
+        }
+        String q = c.query().toLowerCase(Locale.ROOT);
+        String jamo = Hangul.jamo(q);
+        String chosung = Hangul.chosungQuery(c.query());
+        return q.isEmpty() || s.searchText[row].contains(q)
+                || WordSimilarity.matches(WordSimilarity.trigrams(q), WordSimilarity.trigrams(s.searchText[row]))
+                || (!jamo.isEmpty() && s.searchJamo[row].contains(jamo))
+                || (!chosung.isEmpty() && s.searchChosung[row].contains(chosung));
+    }
+
+    // Summaries of the given rows that the index holds, keyed by id
+    public Map<Long, ManhwaSummary> summaries(Collection<Long> ids) {
+        Snapshot s = snapshot;
+        Map<Long, ManhwaSummary> out = new HashMap<>(ids.size() * 2);
+        if (!enabled || s == null) return out;
+        for (Long id : ids) {
+            int row = Arrays.binarySearch(s.ids, id);
+            if (row >= 0) out.put(id, s.summaries[row]);
+        }
+        return out;
+    }
+
+    // Version of a row as of the last applied write, or null when the index does not hold it
+    public ManhwaVersion version(long id) {
+        Snapshot s = snapshot;
+        if (!enabled || s == null) return null;
+        int row = Arrays.binarySearch(s.ids, id);
+        if (row < 0) return null;
+        return new ManhwaVersion(id, s.version[row],
+                s.updatedAt[row] == NO_TIME ? null : Instant.ofEpochMilli(s.updatedAt[row]));
+    }
+
+    // --- Snapshot ---
+
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+    private static final int NO_VOTES = Integer.MIN_VALUE;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int a, int b);
+    }
+
+    private static final class Snapshot {
+        final long[] ids;              // ascending, row number == position
+        final double[] rating;         // NaN when NULL
+        final double[] weighted;
+        final int[] votes;             // NO_VOTES when NULL
+        final int[] year;              // NO_YEAR when release_date is NULL
+        final long[] releaseDay;       // epoch day, NO_DATE when NULL
+        final String[] title;
+        final String[] searchText;     // every title variant, lower-cased (manhwa.search_text)
+        final String[] searchJamo;     // its Hangul as jamo, "" without Hangul (manhwa.search_jamo)
+        final String[] searchChosung;  // its initial consonants, "" without Hangul (manhwa.search_chosung)
+        final Map<String, BitSet> genreRows;
+        final TrigramIndex searchGrams;
+        final TrigramIndex wordGrams;
+        final TrigramIndex jamoGrams;
+        final TrigramIndex chosungGrams;
+        final ManhwaSummary[] summaries;
+        final long[] version;
+        final long[] updatedAt;        // epoch millis, NO_TIME when NULL
+
+        final int[] byRating;
+        final int[] byWeighted;
+        final int[] byDate;
+        final int[] byTitle;
+
+        private Snapshot(long[] ids, double[] rating, double[] weighted, int[] votes, int[] year, long[] releaseDay,
+                         String[] title, String[] searchText, String[] searchJamo,
+                         String[] searchChosung, Map<String, BitSet> genreRows, TrigramIndex searchGrams,
+                         TrigramIndex wordGrams, TrigramIndex jamoGrams, TrigramIndex chosungGrams,
+                         ManhwaSummary[] summaries, long[] version, long[] updatedAt,
+                         int[] byRating, int[] byWeighted, int[] byDate, int[] byTitle) {
+            this.ids = ids;
+            this.rating = rating;
+            this.weighted = weighted;
+            this.votes = votes;
+            this.year = year;
+            this.releaseDay = releaseDay;
+            this.title = title;
+            this.searchText = searchText;
+            this.searchJamo = searchJamo;
+            this.searchChosung = searchChosung;
+            this.genreRows = genreRows;
+            this.searchGrams = searchGrams;
+            this.wordGrams = wordGrams;
+            this.jamoGrams = jamoGrams;
+            this.chosungGrams = chosungGrams;
+            this.summaries = summaries;
+            this.version = version;
+            this.updatedAt = updatedAt;
+            this.byRating = byRating != null ? byRating : sortedRows(this::compareRating);
+            this.byWeighted = byWeighted != null ? byWeighted : sortedRows(this::compareWeighted);
+            this.byDate = byDate != null ? byDate : sortedRows(this::compareDate);
+            this.byTitle = byTitle != null ? byTitle : sortedRows(this::compareTitle);
+        }
+
+        static Snapshot build(List<ManhwaSummaryRow> loaded, ManhwaMapper mapper) {
+            List<ManhwaSummaryRow> rows = new ArrayList<>(loaded);
+            rows.sort(Comparator.comparing(ManhwaSummaryRow::getId));
+            int n = rows.size();
+
+            long[] ids = new long[n];
+            double[] rating = new double[n];
+            double[] weighted = new double[n];
+            int[] votes = new int[n];
+            int[] year = new int[n];
+            long[] releaseDay = new long[n];
+            String[] title = new String[n];
+            String[] searchText = new String[n];
+            String[] searchJamo = new String[n];
+            String[] searchChosung = new String[n];
+            ManhwaSummary[] summaries = new ManhwaSummary[n];
+            long[] version = new long[n];
+            long[] updatedAt = new long[n];
+            Map<String, BitSet> genreRows = new HashMap<>();
+
+            for (int i = 0; i < n; i++) {
+                ManhwaSummaryRow m = rows.get(i);
+                ManhwaSummary s = mapper.toSummary(m);
+                ids[i] = m.getId();
+                rating[i] = m.getAvgRating() == null ? Double.NaN : m.getAvgRating();
+                weighted[i] = m.getWeightedScore() == null ? SeekCursor.NULL_WEIGHTED : m.getWeightedScore();
+                votes[i] = m.getVoteCount() == null ? NO_VOTES : m.getVoteCount();
+                year[i] = m.getReleaseDate() == null ? NO_YEAR : m.getReleaseDate().getYear();
+                releaseDay[i] = m.getReleaseDate() == null ? NO_DATE : m.getReleaseDate().toEpochDay();
+                title[i] = m.getTitle() == null ? "" : m.getTitle();
+                searchText[i] = (m.getSearchText() == null ? title[i] : m.getSearchText()).toLowerCase(Locale.ROOT);
+                searchJamo[i] = m.getSearchJamo() == null ? "" : m.getSearchJamo();
+                searchChosung[i] = m.getSearchChosung() == null ? "" : m.getSearchChosung();
+                summaries[i] = s;
+                version[i] = m.getRowVersion() == null ? 0 : m.getRowVersion();
+                updatedAt[i] = m.getUpdatedAt() == null ? NO_TIME : m.getUpdatedAt().toEpochMilli();
+                for (String g : s.genres()) {
+                    genreRows.computeIfAbsent(g, k -> new BitSet(n)).set(i);
+                }
+            }
+            return new Snapshot(ids, rating, weighted, votes, year, releaseDay, title, searchText,
+                    searchJamo, searchChosung, genreRows, TrigramIndex.build(searchText),
+                    TrigramIndex.buildWords(searchText), TrigramIndex.build(searchJamo), TrigramIndex.build(searchChosung),
+                    summaries, version, updatedAt, null, null, null, null);
+        }
+
+        Snapshot withAggregates(Collection<RatingAggregate> aggregates) {
+            double[] r = rating.clone();
+            double[] w = weighted.clone();
+            int[] v = votes.clone();
+            ManhwaSummary[] s = summaries.clone();
+            long[] ver = version.clone();
+            long[] upd = updatedAt.clone();
+            BitSet changed = new BitSet(ids.length);
+            for (RatingAggregate a : aggregates) {
+                int row = Arrays.binarySearch(ids, a.manhwaId());
+                if (row < 0) continue; // inserted after the last reload; picked up by the next one
+                r[row] = a.avgRating() == null ? Double.NaN : a.avgRating();
+                if (a.weightedScore() != null) w[row] = a.weightedScore();
+                v[row] = a.voteCount() == null ? NO_VOTES : a.voteCount();
+                if (a.rowVersion() != null) ver[row] = a.rowVersion();
+                if (a.updatedAt() != null) upd[row] = a.updatedAt().toEpochMilli();
+                ManhwaSummary old = s[row];
+                s[row] = new ManhwaSummary(
+                        old.id(), old.title(), old.author(),
+                        a.avgRating(), a.voteCount(), old.coverUrl(),
+                        old.bannerUrl(), old.chapters(), old.genres(),
+                        old.titleEnglish(), old.titleRomaji(), old.titleNative());
+                changed.set(row);
+            }
+            if (changed.isEmpty()) return this;
+
+            Snapshot next = new Snapshot(ids, r, w, v, year, releaseDay, title, searchText,
+                    searchJamo, searchChosung, genreRows, searchGrams, wordGrams, jamoGrams, chosungGrams,
+                    s, ver, upd, byRating, byWeighted, byDate, byTitle);
+            int[] moved = changed.stream().toArray();
+            return new Snapshot(ids, r, w, v, year, releaseDay, title, searchText,
+                    searchJamo, searchChosung, genreRows, searchGrams, wordGrams, jamoGrams, chosungGrams,
+                    s, ver, upd,
+                    reposition(byRating, moved, next::compareRating),
+                    reposition(byWeighted, moved, next::compareWeighted),
+                    reposition(byDate, moved, next::compareDate),
+                    byTitle); // title order does not depend on ratings
+        }
+
+        // Ids added, removed or with any different column compared to an earlier snapshot
+        Set<Long> changedSince(Snapshot old) {
+            Set<Long> changed = new HashSet<>();
+            int i = 0, j = 0;
+            while (i < ids.length || j < old.ids.length) {
+                if (j == old.ids.length || (i < ids.length && ids[i] < old.ids[j])) {
+                    changed.add(ids[i++]);
+                } else if (i == ids.length || old.ids[j] < ids[i]) {
+                    changed.add(old.ids[j++]);
+                } else {
+                    if (version[i] != old.version[j] || releaseDay[i] != old.releaseDay[j]
+                            || weighted[i] != old.weighted[j] || !summaries[i].equals(old.summaries[j])) {
+                        changed.add(ids[i]);
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            return changed;
+        }
+
+        int[] order(String sort) {
+            return switch (sort) {
+                case "date" -> byDate;
+                case "title" -> byTitle;
+                case "weighted" -> byWeighted;
+                default -> byRating;
+            };
+        }
+
+        Matcher matcher(SearchCriteria c) {
+            String q = c.query().toLowerCase(Locale.ROOT);
+            String jamo = Hangul.jamo(q);
+            String chosung = Hangul.chosungQuery(c.query());
+            BitSet candidates = null;
+            BitSet fuzzy = null;
+            long[] queryGrams = null;
+            if (!q.isEmpty()) {
+                queryGrams = WordSimilarity.trigrams(q);
+                // a row within the similarity threshold shares at least that share of the query's trigrams
+                long[] distinct = WordSimilarity.distinct(queryGrams);
+                fuzzy = distinct.length == 0 ? new BitSet(0) : wordGrams.sharing(distinct,
+                        Math.max(1, (int) Math.floor(WordSimilarity.THRESHOLD * distinct.length)));
+                candidates = union(searchGrams.candidates(q),
+                        jamo.isEmpty() ? new BitSet(0) : jamoGrams.candidates(jamo),
+                        chosung.isEmpty() ? new BitSet(0) : chosungGrams.candidates(chosung));
+                if (candidates != null) candidates.or(fuzzy);
+            }
+            if (!c.genres().isEmpty()) {
+                BitSet any = new BitSet(ids.length);
+                for (String g : c.genres()) {
+                    BitSet rows = genreRows.get(g);
+                    if (rows != null) any.or(rows);
+                }
+                if (candidates == null) candidates = any;
+                else candidates.and(any);
+            }
+            return new Matcher(this, c, q, jamo, chosung, queryGrams, candidates, fuzzy);
+        }
+
+        // null (no pruning) if any of them is
+        private static BitSet union(BitSet... sets) {
+            BitSet out = null;
+            for (BitSet set : sets) {
+                if (set == null) return null;
+                if (out == null) out = set;
+                else out.or(set);
+            }
+            return out;
+        }
+
+        // Matching rows by word similarity to the query, ties in rating order, like advancedSearch
+        int[] byRelevance(Matcher m) {
+            int[] rows = new int[64];
+            float[] scores = new float[64];
+            int n = 0;
+            BitSet candidates = m.candidates;
+            for (int row = candidates == null ? 0 : candidates.nextSetBit(0);
+                 row >= 0 && row < ids.length;
+                 row = candidates == null ? row + 1 : candidates.nextSetBit(row + 1)) {
+                if (!m.test(row)) continue;
+                if (n == rows.length) {
+                    rows = Arrays.copyOf(rows, n * 2);
+                    scores = Arrays.copyOf(scores, n * 2);
+                }
+                rows[n] = row;
+                scores[n++] = WordSimilarity.wordSimilarity(m.queryGrams, WordSimilarity.trigrams(searchText[row]));
+            }
+
+            int[] pos = new int[n];
+            for (int i = 0; i < n; i++) pos[i] = i;
+            int[] r = rows;
+            float[] sc = scores;
+            mergeSort(pos, new int[n], 0, n, (a, b) -> {
+                int cmp = Float.compare(sc[b], sc[a]);
+                return cmp != 0 ? cmp : compareRating(r[a], r[b]);
+            });
+            int[] out = new int[n];
+            for (int i = 0; i < n; i++) out[i] = rows[pos[i]];
+            return out;
+        }
+
+        // --- Orderings are the SQL ones (see SeekCursor): NULL rating and votes first, ties to rating, votes, id ---
+
+        int compareRating(int a, int b) {
+            return compareRating(rating[a], votes[a], ids[a], rating[b], votes[b], ids[b]);
+        }
+
+        int compareWeighted(int a, int b) {
+            return compareWeighted(weighted[a], rating[a], votes[a], ids[a], weighted[b], rating[b], votes[b], ids[b]);
+        }
+
+        int compareDate(int a, int b) {
+            return compareDate(releaseDay[a], rating[a], votes[a], ids[a], releaseDay[b], rating[b], votes[b], ids[b]);
+        }
+
+        int compareTitle(int a, int b) {
+            return compareTitle(title[a], ids[a], title[b], ids[b]);
+        }
+
+        // Where a cursor key falls relative to a row, in the same order the row comparators use
+        int compareKey(String sort, SeekCursor k, int row) {
+            double r = k.rating() == null ? Double.NaN : k.rating();
+            int v = k.votes() == null ? NO_VOTES : k.votes();
+            return switch (sort) {
+                case "date" -> compareDate(k.releaseDay() == null ? NO_DATE : k.releaseDay(), r, v, k.id(),
+                        releaseDay[row], rating[row], votes[row], ids[row]);
+                case "title" -> compareTitle(k.title() == null ? "" : k.title(), k.id(), title[row], ids[row]);
+                case "weighted" -> compareWeighted(k.weightedKey(), r, v, k.id(),
+                        weighted[row], rating[row], votes[row], ids[row]);
+                default -> compareRating(r, v, k.id(), rating[row], votes[row], ids[row]);
+            };
+        }
+
+        SeekCursor cursorAt(String sort, int row) {
+            return new SeekCursor(sort,
+                    Double.isNaN(rating[row]) ? null : rating[row],
+                    votes[row] == NO_VOTES ? null : votes[row],
+                    releaseDay[row] == NO_DATE ? null : releaseDay[row],
+                    title[row], ids[row], weighted[row]);
+        }
+
+        private static int compareRating(double ra, int va, long ia, double rb, int vb, long ib) {
+            int c = Double.compare(ratingKey(rb), ratingKey(ra));
+            if (c != 0) return c;
+            c = Integer.compare(votesKey(vb), votesKey(va));
+            return c != 0 ? c : Long.compare(ib, ia);
+        }
+
+        private static int compareWeighted(double wa, double ra, int va, long ia, double wb, double rb, int vb, long ib) {
+            int c = Double.compare(wb, wa);
+            return c != 0 ? c : compareRating(ra, va, ia, rb, vb, ib);
+        }
+
+        private static int compareDate(long da, double ra, int va, long ia, long db, double rb, int vb, long ib) {
+            if (da != db) {
+                if (da == NO_DATE) return -1;
+                if (db == NO_DATE) return 1;
+                return Long.compare(db, da);
+            }
+            return compareRating(ra, va, ia, rb, vb, ib);
+        }
+
+        // lower(title COLLATE "C"): A-Z folded, then UTF-8 byte order, which is code point order,
+        // not UTF-16 unit order
+        private static int compareTitle(String ta, long ia, String tb, long ib) {
+            int i = 0, j = 0;
+            while (i < ta.length() && j < tb.length()) {
+                int ca = ta.codePointAt(i), cb = tb.codePointAt(j);
+                if (ca != cb) {
+                    ca = foldAscii(ca);
+                    cb = foldAscii(cb);
+                    if (ca != cb) return Integer.compare(ca, cb);
+                }
+                i += Character.charCount(ca);
+                j += Character.charCount(cb);
+            }
+            int c = Boolean.compare(i < ta.length(), j < tb.length());
+            return c != 0 ? c : Long.compare(ia, ib);
+        }
+
+        private static int foldAscii(int c) {
+            return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+        }
+
+        private static double ratingKey(double r) {
+            return Double.isNaN(r) ? SeekCursor.NULL_RATING : r;
+        }
+
+        private static int votesKey(int v) {
+            return v == NO_VOTES ? SeekCursor.NULL_VOTES : v;
+        }
+
+        private int[] sortedRows(RowComparator cmp) {
+            int[] rows = new int[ids.length];
+            for (int i = 0; i < rows.length; i++) rows[i] = i;
+            mergeSort(rows, new int[rows.length], 0, rows.length, cmp);
+            return rows;
+        }
+
+        private static void mergeSort(int[] a, int[] tmp, int from, int to, RowComparator cmp) {
+            if (to - from < 2) return;
+            int mid = (from + to) >>> 1;
+            mergeSort(a, tmp, from, mid, cmp);
+            mergeSort(a, tmp, mid, to, cmp);
+            if (cmp.compare(a[mid - 1], a[mid]) <= 0) return;
+            System.arraycopy(a, from, tmp, from, to - from);
+            int i = from, j = mid, k = from;
+            while (i < mid && j < to) a[k++] = cmp.compare(tmp[i], tmp[j]) <= 0 ? tmp[i++] : tmp[j++];
+            while (i < mid) a[k++] = tmp[i++];
+            while (j < to) a[k++] = tmp[j++];
+        }
+
+        /**
+         * Only the changed rows have new sort keys, so the remaining rows are still in order:
+         * drop the changed rows, sort them on their own, and merge the two runs in O(n).
+         */
+        private static int[] reposition(int[] order, int[] moved, RowComparator cmp) {
+            BitSet isMoved = new BitSet(order.length);
+            for (int row : moved) isMoved.set(row);
+
+            int[] movedSorted = moved.clone();
+            mergeSort(movedSorted, new int[movedSorted.length], 0, movedSorted.length, cmp);
+
+            int[] out = new int[order.length];
+            int k = 0, j = 0;
+            for (int row : order) {
+                if (isMoved.get(row)) continue;
+                while (j < movedSorted.length && cmp.compare(movedSorted[j], row) < 0) out[k++] = movedSorted[j++];
+                out[k++] = row;
+            }
+            while (j < movedSorted.length) out[k++] = movedSorted[j++];
+            return out;
+        }
+    }
+
+    private static final class Matcher {
+        final Snapshot s;
+        final Double minRating;
+        final Integer minVotes;
+        final Integer year;
+        final String q;
+        final String jamo;             // "" unless the query has Hangul
+        final String chosung;          // "" unless the query is initial consonants only
+        final long[] queryGrams;
+        final BitSet candidates;
+        final BitSet fuzzy;            // rows that may be within the word similarity threshold
+
+        Matcher(Snapshot s, SearchCriteria c, String q, String jamo, String chosung, long[] queryGrams,
+                BitSet candidates, BitSet fuzzy) {
+            this.s = s;
+            this.minRating = c.minRating();
+            this.minVotes = c.minVotes();
+            this.year = c.year();
+            this.q = q;
+            this.jamo = jamo;
+            this.chosung = chosung;
+            this.queryGrams = queryGrams;
+            this.candidates = candidates;
+            this.fuzzy = fuzzy;
+        }
+
+        boolean test(int row) {
+            if (candidates != null && !candidates.get(row)) return false;
+            if (minRating != null && !(s.rating[row] >= minRating)) return false;
+            if (minVotes != null && (s.votes[row] == NO_VOTES || s.votes[row] < minVotes)) return false;
+            if (year != null && s.year[row] != year) return false;
+            if (q.isEmpty() || s.searchText[row].contains(q)) return true;
+            if (!jamo.isEmpty() && s.searchJamo[row].contains(jamo)) return true;
+            if (!chosung.isEmpty() && s.searchChosung[row].contains(chosung)) return true;
+            return fuzzy.get(row) && WordSimilarity.matches(queryGrams, WordSimilarity.trigrams(s.searchText[row]));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.rankhwa.backend.search;
+
+import java.util.Set;
+
+// Published after a scheduled index reload found rows that were written outside the API (seeder upserts)
+public record CatalogReloadedEvent(Set<Long> changedIds) {}
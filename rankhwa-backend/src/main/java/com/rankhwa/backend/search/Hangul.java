@@ -0,0 +1,95 @@
+package com.rankhwa.backend.search;
+
+/**
+ * Hangul search forms, the Java side of schema.sql's hangul_jamo and hangul_chosung: the
+ * catalog index reads the stored forms of each row and spells queries with these, the suggest
+ * trie keys Korean titles with them.
+ *
+ * {@link #jamo} writes each syllable as the compatibility jamo typed for it, with compound
+ * vowels and final clusters split (닭 -> ㄷㅏㄹㄱ), so a query cut off mid-syllable, or one
+ * whose last syllable has borrowed the next consonant (혼잠 while typing 혼자만), is still a
+ * substring. Blanks are dropped so spacing does not matter, except the newline separating
+ * title variants. {@link #chosung} keeps only initial consonants (나 혼자만 -> ㄴㅎㅈㅁ).
+ */
+final class Hangul {
+    private static final int SYLLABLE_FIRST = 0xAC00;   // 가
+    private static final int SYLLABLE_LAST = 0xD7A3;    // 힣
+    private static final int JAMO_FIRST = 0x3131;       // ㄱ
+    private static final int CONSONANT_LAST = 0x314E;   // ㅎ
+    private static final int JAMO_LAST = 0x3163;        // ㅣ
+
+    private static final String[] INITIALS = {"ㄱ", "ㄲ", "ㄴ", "ㄷ", "ㄸ", "ㄹ", "ㅁ", "ㅂ", "ㅃ", "ㅅ", "ㅆ", "ㅇ", "ㅈ",
+            "ㅉ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"};
+    private static final String[] VOWELS = {"ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ", "ㅗㅣ",
+            "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"};
+    private static final String[] FINALS = {"", "ㄱ", "ㄲ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ",
+            "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"};
+    // U+3131..U+3163, clusters split like FINALS and VOWELS
+    private static final String[] COMPAT = {"ㄱ", "ㄲ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄸ", "ㄹ", "ㄹㄱ", "ㄹㅁ",
+            "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅃ", "ㅂㅅ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅉ", "ㅊ", "ㅋ", "ㅌ",
+            "ㅍ", "ㅎ", "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ",
+            "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"};
+
+    private Hangul() {
+    }
+
+    static boolean isSyllable(int cp) {
+        return cp >= SYLLABLE_FIRST && cp <= SYLLABLE_LAST;
+    }
+
+    static boolean isJamo(int cp) {
+        return cp >= JAMO_FIRST && cp <= JAMO_LAST;
+    }
+
+    static boolean isConsonant(int cp) {
+        return cp >= JAMO_FIRST && cp <= CONSONANT_LAST;
+    }
+
+    static boolean containsHangul(String s) {
+        return s.codePoints().anyMatch(cp -> isSyllable(cp) || isJamo(cp));
+    }
+
+    // hangul_jamo(): "" without Hangul
+    static String jamo(String s) {
+        if (!containsHangul(s)) return "";
+        StringBuilder out = new StringBuilder(s.length() * 3);
+        s.codePoints().forEach(cp -> {
+            if (isSyllable(cp)) {
+                int i = cp - SYLLABLE_FIRST;
+                out.append(INITIALS[i / 588]).append(VOWELS[i % 588 / 28]).append(FINALS[i % 28]);
+            } else if (isJamo(cp)) {
+                out.append(COMPAT[cp - JAMO_FIRST]);
+            } else if (!isBlank(cp)) {
+                out.appendCodePoint(cp);
+            }
+        });
+        return out.toString();
+    }
+
+    // hangul_chosung(): "" without a syllable or consonant
+    static String chosung(String s) {
+        if (s.codePoints().noneMatch(cp -> isSyllable(cp) || isConsonant(cp))) return "";
+        StringBuilder out = new StringBuilder(s.length());
+        s.codePoints().forEach(cp -> {
+            if (isSyllable(cp)) out.append(INITIALS[(cp - SYLLABLE_FIRST) / 588]);
+            else if (isConsonant(cp) || cp == '\n') out.appendCodePoint(cp);
+        });
+        return out.toString();
+    }
+
+    // The chosung a query of consonants only (ㄴㅎㅈ) is looking for; "" for any other query
+    static String chosungQuery(String q) {
+        boolean any = false;
+        for (int i = 0; i < q.length(); i++) {
+            char c = q.charAt(i);
+            if (isConsonant(c)) any = true;
+            else if (!isBlank(c) && c != '\n') return "";
+        }
+        return any ? chosung(q) : "";
+    }
+
+    // Postgres' \s less the newline: space, \t, \u000B, \f, \r
+    private static boolean isBlank(int cp) {
+        return cp == ' ' || cp == '\t' || cp == 0x0B || cp == '\f' || cp == '\r';
+    }
+}
@@ -0,0 +1,394 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+import com.rankhwa.backend.repository.RatingRepository;
+import com.rankhwa.backend.service.ManhwaMapper;
+import com.rankhwa.backend.service.RatingAggregate;
+import com.rankhwa.backend.service.RatingAggregatesChangedEvent;
+import com.rankhwa.backend.service.VoteChange;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed top-K rankings behind the homepage sections: most voted and highest rated
+ * all-time, per release year and per genre, and trending by recent rating activity.
+ *
+ * Each board holds the row numbers of its best rows, K plus as many again as slack, in a
+ * sorted int array over columnar per-manhwa state. A vote repositions its manhwa in the few
+ * boards it belongs to with a binary search and an array shift, and a read returns a list
+ * built when the board last changed. Only a board whose slack has run out rescans the rows.
+ * A scheduled rebuild from the manhwa and ratings tables covers cold start, seeder changes
+ * and drift.
+ *
+ * Trending is a decayed count of the ratings rows updated within the window,
+ * sum(exp(-lambda * age)), held as log(sum(exp(lambda * (updated_at - landmark)))); a re-vote
+ * moves its row's contribution to the new time. Every score decays by the same factor, so the
+ * order only changes when votes arrive and a vote only touches its own manhwa; log space
+ * keeps the growing exponent finite. The landmark moves to "now" on every rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Leaderboards {
+    public enum Ranking { POPULAR, TOP_RATED, TRENDING }
+
+    private final ManhwaRepository manhwaRepository;
+    private final RatingRepository ratingRepository;
+    private final ManhwaMapper mapper;
+
+    @Value("${rankhwa.leaderboards.enabled:true}")
+    private boolean enabled;
+    @Value("${rankhwa.leaderboards.size:100}")
+    private int size;
+    @Value("${rankhwa.leaderboards.top-rated.min-votes:10}")
+    private int minVotes;
+    @Value("${rankhwa.leaderboards.trending.half-life-hours:48}")
+    private double halfLifeHours;
+    @Value("${rankhwa.leaderboards.trending.window-days:14}")
+    private int windowDays;
+
+    private double lambda; // per second
+
+    private volatile State state;
+
+    // events applied while a rebuild is reading the tables, replayed onto the fresh state;
+    // a vote the ratings query already saw is applied again until the next rebuild
+    private List<RatingAggregatesChangedEvent> appliedDuringRebuild;
+
+    @PostConstruct
+    void init() {
+        lambda = Math.log(2) / Duration.ofMinutes(Math.round(halfLifeHours * 60)).toSeconds();
+    }
+
+    public boolean isReady() {
+        return enabled && state != null;
+    }
+
+    /** Up to {@code limit} rows of a board; scope is "all", "year:2024" or "genre:Action". */
+    public List<ManhwaSummary> top(Ranking ranking, String scope, int limit) {
+        State s = state;
+        if (!enabled || s == null || limit <= 0) return List.of();
+        Board b = s.boards.get(key(ranking, scope));
+        if (b == null) return List.of();
+        List<ManhwaSummary> view = b.view;
+        return view.size() <= limit ? view : view.subList(0, limit);
+    }
+
+    public static String scope(Integer year, String genre) {
+        if (year != null) return "year:" + year;
+        if (genre != null && !genre.isBlank()) return "genre:" + genre.trim();
+        return "all";
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.leaderboards.rebuild-ms:900000}",
+            initialDelayString = "${rankhwa.leaderboards.rebuild-ms:900000}")
+    public void scheduledRebuild() {
+        if (enabled) rebuild();
+    }
+
+    public void rebuild() {
+        synchronized (this) {
+            appliedDuringRebuild = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            long landmark = Instant.now().getEpochSecond();
+            List<ManhwaSummaryRow> rows = manhwaRepository.findAllSummaryRows();
+            Instant since = Instant.ofEpochSecond(landmark).minus(Duration.ofDays(windowDays));
+            List<RatingRepository.ActivityRow> activity = ratingRepository.findRecentActivity(lambda, landmark, since);
+            State fresh = State.build(rows, activity, mapper, landmark, since, lambda, size, minVotes);
+            synchronized (this) {
+                for (RatingAggregatesChangedEvent e : appliedDuringRebuild) fresh.apply(e);
+                state = fresh;
+            }
+            log.info("Leaderboards built: {} boards over {} rows, {} trending, in {} ms",
+                    fresh.boards.size(), fresh.ids.length, activity.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Leaderboard rebuild failed, keeping the previous rankings", e);
+        } finally {
+            synchronized (this) {
+                appliedDuringRebuild = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAggregatesChanged(RatingAggregatesChangedEvent event) {
+        if (appliedDuringRebuild != null) appliedDuringRebuild.add(event);
+        State s = state;
+        if (s != null) s.apply(event);
+    }
+
+    private static String key(Ranking ranking, String scope) {
+        return ranking + ":" + scope;
+    }
+
+    // --- State ---
+
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+
+    /** Mutated only under the Leaderboards monitor; readers only touch the boards' views. */
+    private static final class State {
+        final long[] ids;              // ascending, row number == position
+        final double[] rating;         // NaN when NULL
+        final int[] votes;             // 0 when NULL
+        final int[] year;              // NO_YEAR when release_date is NULL
+        final double[] trend;          // log decayed vote count at the landmark, -Infinity without votes
+        final ManhwaSummary[] summaries;
+        final long landmark;           // epoch seconds
+        final Instant since;           // votes older than this are outside the window
+        final double lambda;
+        final int k;
+        final int minVotes;
+        final Map<String, Board> boards = new HashMap<>();
+
+        private State(int n, long landmark, Instant since, double lambda, int k, int minVotes) {
+            ids = new long[n];
+            rating = new double[n];
+            votes = new int[n];
+            year = new int[n];
+            trend = new double[n];
+            summaries = new ManhwaSummary[n];
+            this.landmark = landmark;
+            this.since = since;
+            this.lambda = lambda;
+            this.k = k;
+            this.minVotes = minVotes;
+        }
+
+        static State build(List<ManhwaSummaryRow> loaded, List<RatingRepository.ActivityRow> activity,
+                           ManhwaMapper mapper, long landmark, Instant since, double lambda, int k, int minVotes) {
+            List<ManhwaSummaryRow> rows = new ArrayList<>(loaded);
+            rows.sort(Comparator.comparing(ManhwaSummaryRow::getId));
+            State s = new State(rows.size(), landmark, since, lambda, k, minVotes);
+            for (int i = 0; i < rows.size(); i++) {
+                ManhwaSummaryRow m = rows.get(i);
+                s.ids[i] = m.getId();
+                s.rating[i] = m.getAvgRating() == null ? Double.NaN : m.getAvgRating();
+                s.votes[i] = m.getVoteCount() == null ? 0 : m.getVoteCount();
+                s.year[i] = m.getReleaseDate() == null ? NO_YEAR : m.getReleaseDate().getYear();
+                s.trend[i] = Double.NEGATIVE_INFINITY;
+                s.summaries[i] = mapper.toSummary(m);
+            }
+            for (RatingRepository.ActivityRow a : activity) {
+                int row = Arrays.binarySearch(s.ids, a.getManhwaId());
+                if (row >= 0) s.trend[row] = a.getLogScore();
+            }
+
+            for (int row = 0; row < s.ids.length; row++) {
+                for (Ranking r : Ranking.values()) {
+                    for (String scope : s.scopes(r, row)) {
+                        s.boards.computeIfAbsent(key(r, scope), x -> new Board(r, scope));
+                    }
+                }
+            }
+            for (Board b : s.boards.values()) s.fill(b);
+            return s;
+        }
+
+        void apply(RatingAggregatesChangedEvent event) {
+            for (RatingAggregate a : event.aggregates()) {
+                int row = Arrays.binarySearch(ids, a.manhwaId());
+                if (row < 0) continue; // inserted after the last rebuild; picked up by the next one
+                rating[row] = a.avgRating() == null ? Double.NaN : a.avgRating();
+                votes[row] = a.voteCount() == null ? 0 : a.voteCount();
+                ManhwaSummary old = summaries[row];
+                summaries[row] = new ManhwaSummary(
+                        old.id(), old.title(), old.author(),
+                        a.avgRating(), a.voteCount(), old.coverUrl(),
+                        old.bannerUrl(), old.chapters(), old.genres(),
+                        old.titleEnglish(), old.titleRomaji(), old.titleNative());
+                update(Ranking.POPULAR, row);
+                update(Ranking.TOP_RATED, row);
+                // a new average changes the card even where the trending order does not move
+                update(Ranking.TRENDING, row);
+            }
+
+            // a re-vote moves its row's contribution to the new updated_at, a removal drops it,
+            // exactly as the rebuild query would count the table afterwards
+            for (VoteChange v : event.votes()) {
+                int row = Arrays.binarySearch(ids, v.manhwaId());
+                if (row < 0) continue;
+                double t = trend[row];
+                if (v.before() != null && v.before().isAfter(since)) t = logSub(t, exponent(v.before()));
+                if (v.after() != null && v.after().isAfter(since)) t = logAdd(t, exponent(v.after()));
+                if (t == trend[row]) continue;
+                trend[row] = t;
+                update(Ranking.TRENDING, row);
+            }
+        }
+
+        private double exponent(Instant t) {
+            return (t.getEpochSecond() - landmark + t.getNano() / 1e9) * lambda;
+        }
+
+        private void update(Ranking r, int row) {
+            for (String scope : scopes(r, row)) {
+                Board b = boards.get(key(r, scope));
+                if (b != null) b.update(this, row);
+            }
+        }
+
+        // Boards a row can appear on; trending is not split by year
+        List<String> scopes(Ranking r, int row) {
+            List<String> genres = summaries[row].genres();
+            List<String> out = new ArrayList<>(genres.size() + 2);
+            out.add("all");
+            if (r != Ranking.TRENDING && year[row] != NO_YEAR) out.add("year:" + year[row]);
+            for (String g : genres) out.add("genre:" + g);
+            return out;
+        }
+
+        boolean inScope(String scope, int row) {
+            if (scope.equals("all")) return true;
+            if (scope.startsWith("year:")) return year[row] == Integer.parseInt(scope.substring(5));
+            return summaries[row].genres().contains(scope.substring(6));
+        }
+
+        boolean eligible(Ranking r, int row) {
+            return switch (r) {
+                case POPULAR -> votes[row] > 0;
+                case TOP_RATED -> !Double.isNaN(rating[row]) && votes[row] >= minVotes;
+                case TRENDING -> trend[row] > Double.NEGATIVE_INFINITY;
+            };
+        }
+
+        // Best first; ties fall back to the other measure, then id
+        int compare(Ranking r, int a, int b) {
+            int c = switch (r) {
+                case POPULAR -> {
+                    int v = Integer.compare(votes[b], votes[a]);
+                    yield v != 0 ? v : Double.compare(rating[b], rating[a]);
+                }
+                case TOP_RATED -> {
+                    int v = Double.compare(rating[b], rating[a]);
+                    yield v != 0 ? v : Integer.compare(votes[b], votes[a]);
+                }
+                case TRENDING -> Double.compare(trend[b], trend[a]);
+            };
+            return c != 0 ? c : Long.compare(ids[a], ids[b]);
+        }
+
+        // Rescan every row in the board's scope: cold start, or a board that ran out of slack
+        void fill(Board b) {
+            int n = 0;
+            int[] rows = new int[Math.min(ids.length, 64)];
+            for (int row = 0; row < ids.length; row++) {
+                if (!eligible(b.ranking, row) || !inScope(b.scope, row)) continue;
+                if (n == rows.length) rows = Arrays.copyOf(rows, n * 2);
+                rows[n++] = row;
+            }
+            Integer[] boxed = new Integer[n];
+            for (int i = 0; i < n; i++) boxed[i] = rows[i];
+            Arrays.sort(boxed, (x, y) -> compare(b.ranking, x, y));
+
+            int capacity = 2 * k;
+            b.size = Math.min(n, capacity);
+            b.rows = new int[capacity];
+            for (int i = 0; i < b.size; i++) b.rows[i] = boxed[i];
+            b.truncated = n > capacity;
+            b.publish(this);
+        }
+
+        private static double logAdd(double a, double b) {
+            if (a == Double.NEGATIVE_INFINITY) return b;
+            double hi = Math.max(a, b), lo = Math.min(a, b);
+            return hi + Math.log1p(Math.exp(lo - hi));
+        }
+
+        // log(exp(a) - exp(b)); nothing left once b has taken (all but rounding error of) a
+        private static double logSub(double a, double b) {
+            double rest = -Math.expm1(b - a);
+            return rest > 1e-9 ? a + Math.log(rest) : Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Invariant: rows[0..size) are exactly the best {@code size} rows of the scope, in order;
+     * truncated means there are more eligible rows in scope, all ranked below rows[size - 1].
+     */
+    private static final class Board {
+        final Ranking ranking;
+        final String scope;
+        int[] rows = new int[0];
+        int size;
+        boolean truncated;
+        volatile List<ManhwaSummary> view = List.of();
+
+        Board(Ranking ranking, String scope) {
+            this.ranking = ranking;
+            this.scope = scope;
+        }
+
+        void update(State s, int row) {
+            int at = -1;
+            for (int i = 0; i < size; i++) {
+                if (rows[i] == row) { at = i; break; }
+            }
+            if (at >= 0) {
+                System.arraycopy(rows, at + 1, rows, at, size - at - 1);
+                size--;
+            }
+
+            boolean changed = at >= 0;
+            if (s.eligible(ranking, row)) {
+                int lo = 0, hi = size;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (s.compare(ranking, rows[mid], row) < 0) lo = mid + 1;
+                    else hi = mid;
+                }
+                // past the last held row of a truncated board, unseen rows may rank higher
+                if (lo < size || !truncated) {
+                    if (size < rows.length) {
+                        System.arraycopy(rows, lo, rows, lo + 1, size - lo);
+                        rows[lo] = row;
+                        size++;
+                        changed = true;
+                    } else {
+                        truncated = true; // full: the last held row (or this one) drops out
+                        if (lo < size) {
+                            System.arraycopy(rows, lo, rows, lo + 1, size - 1 - lo);
+                            rows[lo] = row;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            if (!changed) return;
+
+            if (truncated && size < s.k) s.fill(this);
+            else publish(s);
+        }
+
+        void publish(State s) {
+            int n = Math.min(size, s.k);
+            ManhwaSummary[] out = new ManhwaSummary[n];
+            for (int i = 0; i < n; i++) out[i] = s.summaries[rows[i]];
+            view = List.of(out);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.rankhwa.backend.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rankhwa.backend.dto.ManhwaPage;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+import com.rankhwa.backend.service.ManhwaMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Answers catalog searches from the in-memory index, falling back to SQL while it is not loaded
+@Service
+@RequiredArgsConstructor
+public class ManhwaSearchService {
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final CatalogIndex catalogIndex;
+    private final ManhwaRepository manhwaRepository;
+    private final ManhwaMapper mapper;
+    private final MeterRegistry meters;
+
+    @Value("${rankhwa.catalog.count-cache.ttl-ms:60000}")
+    private long countCacheTtlMs;
+    @Value("${rankhwa.catalog.count-cache.max-size:10000}")
+    private long countCacheMaxSize;
+
+    private Cache<SearchCriteria.FilterKey, Long> exactCounts;
+    private Timer searchTimer;
+    private Timer countTimer;
+
+    @PostConstruct
+    void init() {
+        exactCounts = Caffeine.newBuilder()
+                .maximumSize(countCacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(countCacheTtlMs))
+                .build();
+        searchTimer = sqlTimer("advancedSearch");
+        countTimer = sqlTimer("advancedSearchCount");
+    }
+
+    public List<ManhwaSummary> search(SearchCriteria c) {
+        return fetch(c, c.offset(), c.size());
+    }
+
+    // Offset mode with a total: rows plus whatever the client asked to know about the rest
+    public ManhwaPage searchPage(SearchCriteria c, TotalMode mode) {
+        int size = Math.max(c.size(), 0);
+        int offset = c.offset();
+        if (mode == TotalMode.NONE) return new ManhwaPage(fetch(c, offset, size), null, null, null, null);
+
+        List<ManhwaSummary> rows = fetch(c, offset, size + 1);
+        boolean more = rows.size() > size;
+        if (more) rows = rows.subList(0, size);
+        ManhwaPage page = new ManhwaPage(rows, null, more, null, null);
+
+        // a short page already pins the exact total, no count needed
+        if (!more && (!rows.isEmpty() || offset == 0) && mode != TotalMode.HAS_MORE) {
+            return page.withTotal((long) offset + rows.size(), "exact");
+        }
+        return withTotal(page, c, mode);
+    }
+
+    // Keyset mode; an empty token asks for the first page
+    public ManhwaPage seek(SearchCriteria c, String cursor, TotalMode mode) {
+        ManhwaPage page = seek(c, cursor);
+        return mode == TotalMode.NONE ? page : withTotal(page, c, mode);
+    }
+
+    public ManhwaPage seek(SearchCriteria c, String cursor) {
+        String sort = c.sortKey();
+        // relevance depends on the query, so there is no stored key order to seek in
+        if (sort.equals("relevance")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort=relevance pages by offset, not cursor");
+        }
+        SeekCursor after = cursor.isBlank() ? null : SeekCursor.decode(cursor, sort);
+        if (catalogIndex.isReady()) return catalogIndex.seek(c, after);
+
+        int size = Math.max(c.size(), 1);
+        double afterRating = after == null ? SeekCursor.NULL_RATING : after.ratingKey();
+        int afterVotes = after == null ? SeekCursor.NULL_VOTES : after.votesKey();
+        long afterId = after == null ? Long.MAX_VALUE : after.id();
+
+        List<ManhwaSummaryRow> rows = switch (sort) {
+            case "date" -> manhwaRepository.seekByDate(
+                    c.query(), c.minRating(), c.minVotes(), c.year(), c.genreArray(), c.genres().size(),
+                    after == null || after.releaseDay() == null
+                            ? "infinity"
+                            : LocalDate.ofEpochDay(after.releaseDay()).toString(),
+                    afterRating, afterVotes, afterId, size + 1);
+            case "weighted" -> manhwaRepository.seekByWeighted(
+                    c.query(), c.minRating(), c.minVotes(), c.year(), c.genreArray(), c.genres().size(),
+                    after == null ? Double.POSITIVE_INFINITY : after.weightedKey(),
+                    afterRating, afterVotes, afterId, size + 1);
+            case "title" -> manhwaRepository.seekByTitle(
+                    c.query(), c.minRating(), c.minVotes(), c.year(), c.genreArray(), c.genres().size(),
+                    after == null || after.title() == null ? "" : after.title(),
+                    after == null ? 0L : after.id(), size + 1);
+            default -> manhwaRepository.seekByRating(
+                    c.query(), c.minRating(), c.minVotes(), c.year(), c.genreArray(), c.genres().size(),
+                    afterRating, afterVotes, afterId, size + 1);
+        };
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = SeekCursor.of(sort, rows.get(size - 1)).encode();
+        }
+        return new ManhwaPage(rows.stream().map(mapper::toSummary).toList(), next);
+    }
+
+    // Summaries in the order of ids (unknown ids are skipped): from the index, the rest in one query
+    public List<ManhwaSummary> summaries(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, ManhwaSummary> found = new HashMap<>(catalogIndex.summaries(ids));
+        if (found.size() < ids.size()) {
+            Long[] missing = ids.stream().filter(id -> !found.containsKey(id)).toArray(Long[]::new);
+            for (ManhwaSummaryRow row : manhwaRepository.findSummaryRowsByIdIn(missing)) {
+                found.put(row.getId(), mapper.toSummary(row));
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public long count(SearchCriteria c) {
+        if (catalogIndex.isReady()) return catalogIndex.count(c);
+        return exactCounts.get(c.filterKey(), k -> countTimer.record(() -> manhwaRepository.advancedSearchCount(
+                c.query(), c.minRating(), c.minVotes(), c.year(), c.genreArray(), c.genres().size())));
+    }
+
+    // --- Helpers ---
+
+    // SQL fallback paths, while the index is not serving
+    private Timer sqlTimer(String query) {
+        return Timer.builder("rankhwa.catalog.sql")
+                .description("Catalog search queries run against Postgres")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(meters);
+    }
+
+    private List<ManhwaSummary> fetch(SearchCriteria c, int offset, int limit) {
+        if (catalogIndex.isReady()) return catalogIndex.search(c, offset, limit);
+
+        var rows = searchTimer.record(() -> manhwaRepository.advancedSearch(
+                c.query(),
+                c.minRating(),
+                c.minVotes(),
+                c.year(),
+                c.genreArray(),
+                c.genres().size(),
+                c.sort(),
+                limit,
+                offset
+        ));
+        return rows.stream().map(mapper::toSummary).toList();
+    }
+
+    private ManhwaPage withTotal(ManhwaPage page, SearchCriteria c, TotalMode mode) {
+        return switch (mode) {
+            case NONE, HAS_MORE -> page;
+            // the in-memory count is a bitset walk, cheaper than asking the planner
+            case ESTIMATE -> catalogIndex.isReady()
+                    ? page.withTotal(catalogIndex.count(c), "exact")
+                    : page.withTotal(estimate(c), "estimate");
+            case EXACT -> page.withTotal(count(c), "exact");
+        };
+    }
+
+    private long estimate(SearchCriteria c) {
+        List<String> plan = manhwaRepository.explainSearch(
+                c.query(), c.minRating(), c.minVotes(), c.year(), c.genreArray(), c.genres().size());
+        if (!plan.isEmpty()) {
+            Matcher m = PLAN_ROWS.matcher(plan.get(0));
+            if (m.find()) return Long.parseLong(m.group(1));
+        }
+        return count(c);
+    }
+}
@@ -0,0 +1,65 @@
+package com.rankhwa.backend.search;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Normalized form of the GET /manhwa filter, sort and paging parameters.
+ * Both the in-memory catalog index and the SQL fallback answer the same criteria.
+ */
+public record SearchCriteria(
+        String query,
+        Double minRating,
+        Integer minVotes,
+        Integer year,
+        List<String> genres,
+        String sort,
+        int page,
+        int size
+) {
+    public static SearchCriteria of(String query, Double minRating, Integer minVotes, Integer year,
+                                    String genres, String sort, int page, int size) {
+        List<String> genreList = (genres == null || genres.isBlank())
+                ? List.of()
+                : List.of(genres.split("\\s*,\\s*"));
+        return new SearchCriteria(
+                query == null ? "" : query,
+                minRating, minVotes, year,
+                genreList,
+                sort == null ? "rating" : sort,
+                page, size
+        );
+    }
+
+    // advancedSearch falls back to its rating tiebreakers for any other value, and for relevance
+    // without a query, where every row scores the same
+    public String sortKey() {
+        return switch (sort) {
+            case "date", "title", "weighted" -> sort;
+            case "relevance" -> query.isEmpty() ? "rating" : sort;
+            default -> "rating";
+        };
+    }
+
+    // Same rows in the same order as this search, in one canonical spelling per distinct result
+    public SearchCriteria normalized() {
+        FilterKey f = filterKey();
+        return new SearchCriteria(f.query(), minRating, minVotes, year, f.genres(), sortKey(), Math.max(page, 0), size);
+    }
+
+    public int offset() {
+        return Math.max(page, 0) * Math.max(size, 1);
+    }
+
+    // Everything that decides which rows match, normalized so equivalent searches share a key
+    public FilterKey filterKey() {
+        return new FilterKey(query.toLowerCase(Locale.ROOT), minRating, minVotes, year,
+                genres.stream().sorted().distinct().toList());
+    }
+
+    public record FilterKey(String query, Double minRating, Integer minVotes, Integer year, List<String> genres) {}
+
+    public String[] genreArray() {
+        return genres.toArray(String[]::new);
+    }
+}
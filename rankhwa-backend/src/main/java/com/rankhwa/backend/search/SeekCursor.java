@@ -0,0 +1,67 @@
+package com.rankhwa.backend.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key of the last row served plus its id. Clients only ever
+ * echo it back; the next page starts strictly after this key.
+ *
+ * A cursor issued by the in-memory index may be resumed by SQL and the other way round, so both
+ * order rows the same way: by the sort column, then rating DESC, votes DESC, id DESC (title: by
+ * code point with A-Z folded to lower case, lower(title COLLATE "C") in SQL, then id ASC), with
+ * a NULL rating, vote count or weighted score compared as the key below: first for ratings and
+ * votes, the column default for weighted scores.
+ */
+public record SeekCursor(String sort, Double rating, Integer votes, Long releaseDay, String title, Long id,
+                         Double weighted) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // What the seek queries COALESCE NULL avg_rating and vote_count to
+    public static final double NULL_RATING = Double.POSITIVE_INFINITY;
+    public static final int NULL_VOTES = Integer.MAX_VALUE;
+    public static final double NULL_WEIGHTED = 0;
+
+    public static SeekCursor of(String sort, ManhwaSummaryRow m) {
+        return new SeekCursor(sort, m.getAvgRating(), m.getVoteCount(),
+                m.getReleaseDate() == null ? null : m.getReleaseDate().toEpochDay(),
+                m.getTitle(), m.getId(), m.getWeightedScore());
+    }
+
+    public double ratingKey() {
+        return rating == null ? NULL_RATING : rating;
+    }
+
+    public int votesKey() {
+        return votes == null ? NULL_VOTES : votes;
+    }
+
+    public double weightedKey() {
+        return weighted == null ? NULL_WEIGHTED : weighted;
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cursor could not be encoded", e);
+        }
+    }
+
+    public static SeekCursor decode(String token, String expectedSort) {
+        SeekCursor c;
+        try {
+            c = MAPPER.readValue(Base64.getUrlDecoder().decode(token), SeekCursor.class);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed cursor");
+        }
+        if (c.id() == null || !expectedSort.equals(c.sort())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+        }
+        return c;
+    }
+}
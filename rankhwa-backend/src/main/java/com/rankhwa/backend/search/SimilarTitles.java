@@ -0,0 +1,428 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+import com.rankhwa.backend.service.ManhwaMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * "More like this" behind GET /manhwa/{id}/similar: the best neighbors of every title,
+ * precomputed from the ratings and genres and served from memory.
+ *
+ * A pair scores rating-weight times the adjusted cosine of the two titles' votes (each vote
+ * less its user's mean, so a harsh and a generous reader agree when they order titles alike)
+ * plus the rest times the Jaccard index of their genre sets. The cosine only counts once
+ * min-overlap users have rated both; below that it is noise and genres decide alone.
+ *
+ * A rebuild streams the votes straight into flat arrays (fetch-size rows at a time, no entity
+ * or projection per vote), lays them out twice, by user and by title, and splits the
+ * titles across a fork-join pool. Each title walks its raters' other votes to accumulate dot
+ * products, then scans every title once for genre overlap (a catalog has a few dozen genres,
+ * so exact Jaccard on bitmasks is cheaper than MinHash estimates) and keeps the best
+ * neighbors in a bounded heap. Cards are looked up at request time, with current ratings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SimilarTitles {
+    private final ManhwaRepository manhwaRepository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ManhwaMapper mapper;
+    private final ManhwaSearchService searchService;
+
+    @Value("${rankhwa.similar.enabled:true}")
+    private boolean enabled;
+    @Value("${rankhwa.similar.neighbors:20}")
+    private int k;
+    @Value("${rankhwa.similar.rating-weight:0.7}")
+    private double ratingWeight;
+    @Value("${rankhwa.similar.min-overlap:3}")
+    private int minOverlap;
+    @Value("${rankhwa.similar.parallelism:0}")
+    private int parallelism;
+    @Value("${rankhwa.similar.fetch-size:10000}")
+    private int fetchSize;
+
+    private volatile Neighbors neighbors;
+
+    public boolean isReady() {
+        return enabled && neighbors != null;
+    }
+
+    // Up to limit titles most like id, best first; empty for a title newer than the last rebuild
+    public List<ManhwaSummary> similar(long id, int limit) {
+        Neighbors n = neighbors;
+        if (!enabled || n == null || limit <= 0) return List.of();
+        int row = Arrays.binarySearch(n.ids, id);
+        if (row < 0) return List.of();
+        long[] best = n.best[row].ids();
+        List<Long> ids = new ArrayList<>(Math.min(limit, best.length));
+        for (int i = 0; i < best.length && ids.size() < limit; i++) ids.add(best[i]);
+        return searchService.summaries(ids);
+    }
+
+    // The neighbors of id and their scores, best first; none for an unknown title
+    public Neighborhood neighborhood(long id) {
+        Neighbors n = neighbors;
+        if (!enabled || n == null) return Neighborhood.NONE;
+        int row = Arrays.binarySearch(n.ids, id);
+        return row < 0 ? Neighborhood.NONE : n.best[row];
+    }
+
+    public record Neighborhood(long[] ids, float[] scores) {
+        static final Neighborhood NONE = new Neighborhood(new long[0], new float[0]);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.similar.rebuild-ms:3600000}",
+            initialDelayString = "${rankhwa.similar.rebuild-ms:3600000}")
+    public void scheduledRebuild() {
+        if (enabled) rebuild();
+    }
+
+    public void rebuild() {
+        try {
+            long start = System.nanoTime();
+            List<ManhwaSummaryRow> rows = manhwaRepository.findAllSummaryRows();
+            Matrix m = Matrix.build(rows, mapper, this::readVotes);
+
+            Neighborhood[] best = new Neighborhood[m.ids.length];
+            ForkJoinPool pool = new ForkJoinPool(
+                    parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            try {
+                pool.invoke(new Rank(new Job(m, k, ratingWeight, minOverlap), best, 0, best.length));
+            } finally {
+                pool.shutdown();
+            }
+            neighbors = new Neighbors(m.ids, best);
+            log.info("Similar titles built: {} titles, {} users, {} votes, in {} ms",
+                    m.ids.length, m.users, m.byUserRows.length, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Similar titles rebuild failed, keeping the previous neighbors", e);
+        }
+    }
+
+    // Every vote, one user's together; the driver only streams inside a transaction
+    private void readVotes(RowCallbackHandler sink) {
+        tx.executeWithoutResult(status -> jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT user_id, manhwa_id, score FROM ratings ORDER BY user_id");
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, sink));
+    }
+
+    // --- State ---
+
+    private record Neighbors(long[] ids, Neighborhood[] best) {
+    }
+
+    /** Votes by user and by title as parallel primitive arrays; row number == position in ids. */
+    private static final class Matrix {
+        final long[] ids;              // ascending
+        final int users;
+        final int[] byUserStart;       // user u's votes are [byUserStart[u], byUserStart[u + 1])
+        final int[] byUserRows;
+        final float[] byUserValues;    // score less the user's mean
+        final int[] byTitleStart;      // row i's votes are [byTitleStart[i], byTitleStart[i + 1])
+        final int[] byTitleUsers;
+        final float[] byTitleValues;
+        final double[] norm;           // length of row i's centered vote vector
+        final long[] genres;           // words bits per row
+        final int words;
+        final int[] genreCount;
+
+        private Matrix(long[] ids, int users, int votes, int words) {
+            int n = ids.length;
+            this.ids = ids;
+            this.users = users;
+            byUserStart = new int[users + 1];
+            byUserRows = new int[votes];
+            byUserValues = new float[votes];
+            byTitleStart = new int[n + 1];
+            byTitleUsers = new int[votes];
+            byTitleValues = new float[votes];
+            norm = new double[n];
+            this.words = words;
+            genres = new long[n * words];
+            genreCount = new int[n];
+        }
+
+        static Matrix build(List<ManhwaSummaryRow> loaded, ManhwaMapper mapper, Consumer<RowCallbackHandler> votes) {
+            List<ManhwaSummaryRow> rows = new ArrayList<>(loaded);
+            rows.sort(Comparator.comparing(ManhwaSummaryRow::getId));
+            long[] ids = new long[rows.size()];
+            List<List<String>> genreLists = new ArrayList<>(rows.size());
+            Map<String, Integer> genreBits = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = rows.get(i).getId();
+                List<String> g = mapper.parseGenres(rows.get(i).getGenres());
+                genreLists.add(g);
+                for (String genre : g) genreBits.putIfAbsent(genre, genreBits.size());
+            }
+
+            VoteBuffer buffer = new VoteBuffer(ids);
+            votes.accept(buffer);
+            int[] voteRow = buffer.rows, voteUser = buffer.users, score = buffer.scores;
+            int kept = buffer.kept, users = buffer.userCount;
+
+            Matrix m = new Matrix(ids, users, kept, Math.max(1, (genreBits.size() + 63) / 64));
+            for (int i = 0; i < ids.length; i++) {
+                for (String genre : genreLists.get(i)) {
+                    int bit = genreBits.get(genre);
+                    long mask = 1L << (bit & 63);
+                    int word = i * m.words + (bit >>> 6);
+                    if ((m.genres[word] & mask) == 0) m.genreCount[i]++;
+                    m.genres[word] |= mask;
+                }
+            }
+
+            // by user: already in order, centered on each user's mean
+            for (int from = 0; from < kept; ) {
+                int u = voteUser[from], to = from;
+                long sum = 0;
+                while (to < kept && voteUser[to] == u) sum += score[to++];
+                float mean = (float) sum / (to - from);
+                m.byUserStart[u] = from;
+                for (int a = from; a < to; a++) {
+                    m.byUserRows[a] = voteRow[a];
+                    m.byUserValues[a] = score[a] - mean;
+                }
+                from = to;
+            }
+            m.byUserStart[users] = kept;
+
+            // by title: counting sort of the same votes
+            for (int a = 0; a < kept; a++) m.byTitleStart[voteRow[a] + 1]++;
+            for (int i = 0; i < ids.length; i++) m.byTitleStart[i + 1] += m.byTitleStart[i];
+            int[] fill = Arrays.copyOf(m.byTitleStart, ids.length);
+            for (int u = 0; u < users; u++) {
+                for (int a = m.byUserStart[u]; a < m.byUserStart[u + 1]; a++) {
+                    int row = m.byUserRows[a], at = fill[row]++;
+                    m.byTitleUsers[at] = u;
+                    m.byTitleValues[at] = m.byUserValues[a];
+                    m.norm[row] += (double) m.byUserValues[a] * m.byUserValues[a];
+                }
+            }
+            for (int i = 0; i < ids.length; i++) m.norm[i] = Math.sqrt(m.norm[i]);
+            return m;
+        }
+
+        double jaccard(int i, int j) {
+            int union = genreCount[i] + genreCount[j];
+            if (union == 0) return 0;
+            int common = 0;
+            for (int w = 0; w < words; w++) common += Long.bitCount(genres[i * words + w] & genres[j * words + w]);
+            return (double) common / (union - common);
+        }
+    }
+
+    /** Votes as they stream in, grouped by user, as rows of ids; votes for titles deleted since are dropped. */
+    private static final class VoteBuffer implements RowCallbackHandler {
+        final long[] ids;
+        int[] rows = new int[1024];
+        int[] users = new int[1024];
+        int[] scores = new int[1024];
+        int kept;
+        int userCount;
+        long lastUser;
+
+        VoteBuffer(long[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long user = rs.getLong(1);
+            int row = Arrays.binarySearch(ids, rs.getLong(2));
+            if (row < 0) return;
+            if (kept == rows.length) {
+                rows = Arrays.copyOf(rows, kept * 2);
+                users = Arrays.copyOf(users, kept * 2);
+                scores = Arrays.copyOf(scores, kept * 2);
+            }
+            if (kept == 0 || user != lastUser) userCount++;
+            lastUser = user;
+            rows[kept] = row;
+            users[kept] = userCount - 1;
+            scores[kept] = rs.getInt(3);
+            kept++;
+        }
+    }
+
+    /** One rebuild's inputs; every worker thread gets its own scratch arrays. */
+    private static final class Job {
+        final Matrix m;
+        final int k;
+        final double ratingWeight;
+        final int minOverlap;
+        final ThreadLocal<Scratch> scratch;
+
+        Job(Matrix m, int k, double ratingWeight, int minOverlap) {
+            this.m = m;
+            this.k = k;
+            this.ratingWeight = ratingWeight;
+            this.minOverlap = minOverlap;
+            this.scratch = ThreadLocal.withInitial(() -> new Scratch(m.ids.length, k));
+        }
+
+        Neighborhood best(int i) {
+            Scratch s = scratch.get();
+            double[] dot = s.dot;
+            int[] common = s.common;
+            int touched = 0;
+            for (int a = m.byTitleStart[i]; a < m.byTitleStart[i + 1]; a++) {
+                int u = m.byTitleUsers[a];
+                float vi = m.byTitleValues[a];
+                for (int b = m.byUserStart[u]; b < m.byUserStart[u + 1]; b++) {
+                    int j = m.byUserRows[b];
+                    if (j == i) continue;
+                    if (common[j]++ == 0) s.touched[touched++] = j;
+                    dot[j] += vi * m.byUserValues[b];
+                }
+            }
+
+            s.size = 0;
+            for (int j = 0; j < m.ids.length; j++) {
+                if (j == i) continue;
+                double score = (1 - ratingWeight) * m.jaccard(i, j);
+                if (common[j] >= minOverlap && m.norm[i] > 0 && m.norm[j] > 0) {
+                    score += ratingWeight * dot[j] / (m.norm[i] * m.norm[j]);
+                }
+                if (score > 0) s.offer(j, score);
+            }
+            for (int t = 0; t < touched; t++) {
+                dot[s.touched[t]] = 0;
+                common[s.touched[t]] = 0;
+            }
+            return s.drain(m.ids);
+        }
+    }
+
+    /** Per-thread accumulators, cleared after each title, and a heap of the best k so far. */
+    private static final class Scratch {
+        final double[] dot;
+        final int[] common;
+        final int[] touched;
+        final int[] heapRows;
+        final double[] heapScores;
+        int size;
+
+        Scratch(int n, int k) {
+            dot = new double[n];
+            common = new int[n];
+            touched = new int[n];
+            heapRows = new int[k];
+            heapScores = new double[k];
+        }
+
+        // Min-heap on (score, then higher row): the root is the first to drop out
+        void offer(int row, double score) {
+            if (heapRows.length == 0) return;
+            if (size < heapRows.length) {
+                int at = size++;
+                while (at > 0) {
+                    int parent = (at - 1) >>> 1;
+                    if (!worse(row, score, heapRows[parent], heapScores[parent])) break;
+                    heapRows[at] = heapRows[parent];
+                    heapScores[at] = heapScores[parent];
+                    at = parent;
+                }
+                heapRows[at] = row;
+                heapScores[at] = score;
+            } else if (worse(heapRows[0], heapScores[0], row, score)) {
+                siftDown(row, score);
+            }
+        }
+
+        // Best first, emptying the heap
+        Neighborhood drain(long[] ids) {
+            long[] out = new long[size];
+            float[] scores = new float[size];
+            while (size > 0) {
+                out[size - 1] = ids[heapRows[0]];
+                scores[size - 1] = (float) heapScores[0];
+                int lastRow = heapRows[size - 1];
+                double lastScore = heapScores[size - 1];
+                size--;
+                if (size > 0) siftDown(lastRow, lastScore);
+            }
+            return new Neighborhood(out, scores);
+        }
+
+        private void siftDown(int row, double score) {
+            int at = 0;
+            while (true) {
+                int child = 2 * at + 1;
+                if (child >= size) break;
+                if (child + 1 < size && worse(heapRows[child + 1], heapScores[child + 1], heapRows[child], heapScores[child])) {
+                    child++;
+                }
+                if (!worse(heapRows[child], heapScores[child], row, score)) break;
+                heapRows[at] = heapRows[child];
+                heapScores[at] = heapScores[child];
+                at = child;
+            }
+            heapRows[at] = row;
+            heapScores[at] = score;
+        }
+
+        private static boolean worse(int rowA, double scoreA, int rowB, double scoreB) {
+            return scoreA < scoreB || (scoreA == scoreB && rowA > rowB);
+        }
+    }
+
+    /** Ranks rows [from, to), splitting the range until it is small. */
+    private static final class Rank extends RecursiveAction {
+        private static final int LEAF = 32;
+
+        private final Job job;
+        private final Neighborhood[] out;
+        private final int from;
+        private final int to;
+
+        Rank(Job job, Neighborhood[] out, int from, int to) {
+            this.job = job;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF) {
+                for (int i = from; i < to; i++) out[i] = job.best(i);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Rank(job, out, from, mid), new Rank(job, out, mid, to));
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.rankhwa.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Radix trie over normalized title keys for typeahead. Every node keeps the best
+ * {@code topN} ids of its subtree by weight, so a completion is a walk down the prefix plus
+ * that node's list, however many titles share the prefix.
+ *
+ * Writes happen under the owner's lock and recompute the lists along the key's path only.
+ * Readers walk without locking: nodes swap in new arrays instead of editing them, and an edge
+ * split publishes a copy of the split node, so a reader sees each node before or after a write.
+ * The node count and byte estimate are kept up to date by the same writes, so reading them is free.
+ */
+final class SuggestTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final int topN;
+    private final LongUnaryOperator weights;   // current weight of an id
+    private final Node root = new Node("");
+
+    // written under the owner's lock, read by metrics
+    private volatile int nodes = 1;
+    private volatile long bytes = size(root);
+
+    SuggestTrie(int topN, LongUnaryOperator weights) {
+        this.topN = topN;
+        this.weights = weights;
+    }
+
+    // Best ids whose keys start with prefix, best first
+    long[] complete(String prefix) {
+        Node n = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node[] children = n.children;
+            int c = find(children, prefix.charAt(i));
+            if (c < 0) return NO_IDS;
+            Node child = children[c];
+            int common = common(child.label, prefix, i);
+            if (i + common == prefix.length()) return child.top;
+            if (common < child.label.length()) return NO_IDS;
+            n = child;
+            i += common;
+        }
+        return n.top;
+    }
+
+    void add(String key, long id) {
+        List<Node> path = insert(key, id);
+        for (int k = path.size() - 1; k >= 0; k--) recompute(path.get(k));
+    }
+
+    // Bulk load: call recomputeAll once the keys are in
+    void addWithoutRanking(String key, long id) {
+        insert(key, id);
+    }
+
+    void recomputeAll() {
+        recomputeSubtree(root);
+    }
+
+    void remove(String key, long id) {
+        List<Node> path = path(key);
+        if (path == null) return;
+        Node end = path.get(path.size() - 1);
+        if (indexOf(end.ids, id) < 0) return;
+        long endBefore = size(end);
+        end.ids = without(end.ids, id);
+        resized(end, endBefore);
+        for (int k = path.size() - 1; k >= 0; k--) recompute(path.get(k));
+
+        // drop nodes left without keys, fold single-child ones into their child
+        for (int k = path.size() - 1; k >= 1; k--) {
+            Node node = path.get(k), parent = path.get(k - 1);
+            if (node.ids.length > 0) break;
+            Node[] children = node.children;
+            if (children.length == 0) {
+                long before = size(parent);
+                removeChild(parent, node);
+                resized(parent, before);
+                detached(node);
+            } else if (children.length == 1) {
+                Node only = children[0];
+                Node folded = new Node(node.label + only.label, only);
+                replaceChild(parent, node, folded);
+                detached(node);
+                detached(only);
+                attached(folded);
+                break;
+            } else {
+                break;
+            }
+        }
+    }
+
+    // The weight of an id under key changed
+    void reweight(String key) {
+        List<Node> path = path(key);
+        if (path == null) return;
+        for (int k = path.size() - 1; k >= 0; k--) recompute(path.get(k));
+    }
+
+    int nodeCount() {
+        return nodes;
+    }
+
+    // Approximate retained heap of nodes, labels and arrays (compressed oops, 8-byte alignment)
+    long estimatedBytes() {
+        return bytes;
+    }
+
+    // --- Helpers ---
+
+    private List<Node> insert(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        Node n = root;
+        path.add(n);
+        int i = 0;
+        while (i < key.length()) {
+            Node[] children = n.children;
+            int c = find(children, key.charAt(i));
+            if (c < 0) {
+                Node leaf = new Node(key.substring(i));
+                long before = size(n);
+                addChild(n, leaf);
+                resized(n, before);
+                attached(leaf);
+                n = leaf;
+                path.add(n);
+                break;
+            }
+            Node child = children[c];
+            int common = common(child.label, key, i);
+            if (common < child.label.length()) {
+                // split the edge: a new node takes the shared part, a copy of child hangs below with the rest
+                Node mid = new Node(child.label.substring(0, common));
+                Node rest = new Node(child.label.substring(common), child);
+                mid.children = new Node[]{rest};
+                mid.top = rest.top;
+                replaceChild(n, child, mid);
+                detached(child);
+                attached(mid);
+                attached(rest);
+                child = mid;
+            }
+            n = child;
+            path.add(n);
+            i += common;
+        }
+        if (indexOf(n.ids, id) < 0) {
+            long before = size(n);
+            long[] ids = Arrays.copyOf(n.ids, n.ids.length + 1);
+            ids[ids.length - 1] = id;
+            n.ids = ids;
+            resized(n, before);
+        }
+        return path;
+    }
+
+    // Nodes from the root to the one where key ends, or null when key is not in the trie
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node n = root;
+        path.add(n);
+        int i = 0;
+        while (i < key.length()) {
+            int c = find(n.children, key.charAt(i));
+            if (c < 0) return null;
+            Node child = n.children[c];
+            if (!key.startsWith(child.label, i)) return null;
+            n = child;
+            path.add(n);
+            i += child.label.length();
+        }
+        return path;
+    }
+
+    private void recomputeSubtree(Node n) {
+        for (Node child : n.children) recomputeSubtree(child);
+        recompute(n);
+    }
+
+    // The node's own ids and its children's lists hold every candidate for its list
+    private void recompute(Node n) {
+        Node[] children = n.children;
+        int size = n.ids.length;
+        for (Node child : children) size += child.top.length;
+        long[] candidates = Arrays.copyOf(n.ids, size);
+        int at = n.ids.length;
+        for (Node child : children) {
+            System.arraycopy(child.top, 0, candidates, at, child.top.length);
+            at += child.top.length;
+        }
+        long before = size(n);
+        n.top = best(candidates);
+        resized(n, before);
+    }
+
+    private void attached(Node n) {
+        nodes++;
+        bytes += size(n);
+    }
+
+    private void detached(Node n) {
+        nodes--;
+        bytes -= size(n);
+    }
+
+    private void resized(Node n, long before) {
+        bytes += size(n) - before;
+    }
+
+    // Highest weight first, ties by id; an id reachable through two keys counts once
+    private long[] best(long[] candidates) {
+        Long[] boxed = new Long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) boxed[i] = candidates[i];
+        Arrays.sort(boxed, (a, b) -> {
+            int c = Long.compare(weights.applyAsLong(b), weights.applyAsLong(a));
+            return c != 0 ? c : Long.compare(a, b);
+        });
+        long[] out = new long[Math.min(topN, boxed.length)];
+        int n = 0;
+        for (int i = 0; i < boxed.length && n < out.length; i++) {
+            if (n > 0 && out[n - 1] == boxed[i]) continue;
+            out[n++] = boxed[i];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static int find(Node[] children, char first) {
+        int lo = 0, hi = children.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char c = children[mid].label.charAt(0);
+            if (c < first) lo = mid + 1;
+            else if (c > first) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    // Length of the common prefix of label and s.substring(from)
+    private static int common(String label, String s, int from) {
+        int n = Math.min(label.length(), s.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == s.charAt(from + i)) i++;
+        return i;
+    }
+
+    private static void addChild(Node parent, Node child) {
+        Node[] old = parent.children;
+        int at = 0;
+        while (at < old.length && old[at].label.charAt(0) < child.label.charAt(0)) at++;
+        Node[] next = new Node[old.length + 1];
+        System.arraycopy(old, 0, next, 0, at);
+        next[at] = child;
+        System.arraycopy(old, at, next, at + 1, old.length - at);
+        parent.children = next;
+    }
+
+    private static void replaceChild(Node parent, Node old, Node replacement) {
+        Node[] next = parent.children.clone();
+        for (int i = 0; i < next.length; i++) {
+            if (next[i] == old) next[i] = replacement;
+        }
+        parent.children = next;
+    }
+
+    private static void removeChild(Node parent, Node child) {
+        Node[] old = parent.children;
+        Node[] next = new Node[old.length - 1];
+        int k = 0;
+        for (Node n : old) {
+            if (n != child) next[k++] = n;
+        }
+        parent.children = next.length == 0 ? NO_CHILDREN : next;
+    }
+
+    private static int indexOf(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        if (ids.length == 1) return NO_IDS;
+        long[] out = new long[ids.length - 1];
+        int k = 0;
+        for (long x : ids) {
+            if (x != id) out[k++] = x;
+        }
+        return out;
+    }
+
+    // One node without its subtree: header and fields, label, and the arrays it holds
+    private static long size(Node n) {
+        long total = 32 + 24 + align(16 + 2L * n.label.length());
+        if (n.children.length > 0) total += align(16 + 4L * n.children.length);
+        if (n.ids.length > 0) total += align(16 + 8L * n.ids.length);
+        if (n.top.length > 0) total += align(16 + 8L * n.top.length);
+        return total;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static final class Node {
+        final String label;                       // edge from the parent; "" only at the root
+        volatile Node[] children = NO_CHILDREN;   // by first label char
+        volatile long[] ids = NO_IDS;             // keys that end here
+        volatile long[] top = NO_IDS;             // best ids of the subtree
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // Same subtree under a different edge label
+        Node(String label, Node from) {
+            this.label = label;
+            this.children = from.children;
+            this.ids = from.ids;
+            this.top = from.top;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.config.PrimaryReads;
+import com.rankhwa.backend.dto.Suggestion;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.repository.ManhwaRepository.SuggestRow;
+import com.rankhwa.backend.service.RatingAggregate;
+import com.rankhwa.backend.service.RatingAggregatesChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead completions for GET /manhwa/suggest, answered from a {@link SuggestTrie} without
+ * touching Postgres.
+ *
+ * Every title variant (title, English, native, romaji) is indexed from its start and from
+ * each later word, so "lev" completes "Solo Leveling". Keys are lower-cased, runs of other
+ * characters collapse to one blank, and keys are cut at max-key-length, which together with
+ * top-n bounds the trie; its size is published as gauges. Titles rank by seed_popularity plus
+ * vote-weight per local vote.
+ *
+ * Korean keys are spelled in jamo without blanks ({@link Hangul#jamo}), so a syllable still
+ * being typed completes, and every Korean key also gets its initial consonants, so ㄴㅎㅈ
+ * completes 나 혼자만 레벨업. Queries are spelled the same way before the walk.
+ *
+ * Rows a catalog reload found changed are re-read and re-keyed, votes re-rank their title
+ * along its keys only, and a scheduled rebuild covers everything else.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TitleSuggester {
+    private final ManhwaRepository manhwaRepository;
+    private final MeterRegistry meters;
+
+    @Value("${rankhwa.suggest.enabled:true}")
+    private boolean enabled;
+    @Value("${rankhwa.suggest.top-n:10}")
+    private int topN;
+    @Value("${rankhwa.suggest.max-key-length:48}")
+    private int maxKeyLength;
+    @Value("${rankhwa.suggest.vote-weight:100}")
+    private long voteWeight;
+
+    private volatile State state;
+
+    // changes seen while a rebuild is reading the table, replayed onto the fresh trie
+    private List<Runnable> appliedDuringRebuild;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("rankhwa.suggest.trie.nodes", this, s -> s.state == null ? 0 : s.state.trie.nodeCount())
+                .description("Nodes in the typeahead trie")
+                .register(meters);
+        Gauge.builder("rankhwa.suggest.trie.bytes", this, s -> s.state == null ? 0 : s.state.trie.estimatedBytes())
+                .description("Estimated heap held by the typeahead trie")
+                .baseUnit("bytes")
+                .register(meters);
+    }
+
+    public boolean isReady() {
+        return enabled && state != null;
+    }
+
+    // Up to size completions of the typed prefix, most popular first
+    public List<Suggestion> suggest(String query, int size) {
+        State s = state;
+        String prefix = key(normalize(query));
+        if (!enabled || s == null || prefix.isEmpty() || size <= 0) return List.of();
+
+        long[] ids = s.trie.complete(prefix);
+        List<Suggestion> out = new ArrayList<>(Math.min(size, ids.length));
+        for (int i = 0; i < ids.length && out.size() < size; i++) {
+            Entry e = s.entries.get(ids[i]);
+            if (e != null) out.add(new Suggestion(e.id(), e.title(), matched(e, prefix), e.coverUrl()));
+        }
+        return out;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.suggest.rebuild-ms:3600000}",
+            initialDelayString = "${rankhwa.suggest.rebuild-ms:3600000}")
+    public void scheduledRebuild() {
+        if (enabled) rebuild();
+    }
+
+    public void rebuild() {
+        synchronized (this) {
+            appliedDuringRebuild = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            State fresh = new State(topN);
+            for (SuggestRow row : manhwaRepository.findAllSuggestRows()) {
+                Entry e = entry(row);
+                fresh.entries.put(e.id(), e);
+                for (String key : e.keys()) fresh.trie.addWithoutRanking(key, e.id());
+            }
+            fresh.trie.recomputeAll();
+            synchronized (this) {
+                state = fresh;
+                for (Runnable change : appliedDuringRebuild) change.run();
+            }
+            log.info("Suggest trie built: {} titles, {} nodes, ~{} KiB, in {} ms",
+                    fresh.entries.size(), fresh.trie.nodeCount(), fresh.trie.estimatedBytes() / 1024,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Suggest trie rebuild failed, keeping the previous one", e);
+        } finally {
+            synchronized (this) {
+                appliedDuringRebuild = null;
+            }
+        }
+    }
+
+    // A reload found rows inserted, edited or deleted outside the API: re-key just those
+    @EventListener
+    public void onCatalogReloaded(CatalogReloadedEvent event) {
+        if (!enabled || event.changedIds().isEmpty()) return;
+        List<SuggestRow> rows = PrimaryReads.call(
+                () -> manhwaRepository.findSuggestRowsByIdIn(event.changedIds().toArray(Long[]::new)));
+        Set<Long> gone = new HashSet<>(event.changedIds());
+        List<Entry> found = new ArrayList<>(rows.size());
+        for (SuggestRow row : rows) {
+            gone.remove(row.getId());
+            found.add(entry(row));
+        }
+        apply(() -> {
+            State s = state;
+            if (s == null) return;
+            for (Entry e : found) s.put(e);
+            for (Long id : gone) s.remove(id);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAggregatesChanged(RatingAggregatesChangedEvent event) {
+        if (!enabled || event.aggregates().isEmpty()) return;
+        List<RatingAggregate> aggregates = event.aggregates();
+        apply(() -> {
+            State s = state;
+            if (s == null) return;
+            for (RatingAggregate a : aggregates) {
+                Entry old = s.entries.get(a.manhwaId());
+                if (old == null) continue; // inserted after the last rebuild; picked up by the next one
+                int votes = a.voteCount() == null ? 0 : a.voteCount();
+                s.put(old.withWeight(old.seedPopularity() + voteWeight * votes));
+            }
+        });
+    }
+
+    private synchronized void apply(Runnable change) {
+        if (appliedDuringRebuild != null) appliedDuringRebuild.add(change);
+        change.run();
+    }
+
+    private Entry entry(SuggestRow row) {
+        List<String> variants = Stream.of(row.getTitle(), row.getTitleEnglish(), row.getTitleRomaji(), row.getTitleNative())
+                .filter(v -> v != null && !v.isBlank())
+                .distinct()
+                .toList();
+        long seed = row.getSeedPopularity() == null ? 0 : row.getSeedPopularity();
+        long votes = row.getVoteCount() == null ? 0 : row.getVoteCount();
+        return new Entry(row.getId(), row.getTitle(), row.getCoverUrl(), variants, keys(variants),
+                seed, seed + voteWeight * votes);
+    }
+
+    // The whole variant and its tail from every later word, each cut to max-key-length;
+    // Korean tails also by their initial consonants
+    private Set<String> keys(List<String> variants) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String v : variants) {
+            String n = normalize(v);
+            for (int i = 0; i < n.length(); i++) {
+                if (i > 0 && n.charAt(i - 1) != ' ') continue;
+                String tail = n.substring(i);
+                keys.add(key(tail));
+                String chosung = Hangul.chosung(tail);
+                if (!chosung.isEmpty()) keys.add(truncate(chosung));
+            }
+        }
+        return keys;
+    }
+
+    // A normalized key or prefix as the trie holds it
+    private String key(String normalized) {
+        return truncate(Hangul.containsHangul(normalized) ? Hangul.jamo(normalized) : normalized);
+    }
+
+    // The variant the prefix completes, for highlighting
+    private String matched(Entry e, String prefix) {
+        for (String v : e.variants()) {
+            for (String key : keys(List.of(v))) {
+                if (key.startsWith(prefix)) return v;
+            }
+        }
+        return e.title();
+    }
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder out = new StringBuilder(s.length());
+        boolean gap = false;
+        for (int i = 0; i < s.length(); ) {
+            int cp = s.codePointAt(i);
+            i += Character.charCount(cp);
+            if (Character.isLetterOrDigit(cp)) {
+                if (gap && !out.isEmpty()) out.append(' ');
+                gap = false;
+                out.appendCodePoint(cp);
+            } else {
+                gap = true;
+            }
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private String truncate(String key) {
+        return key.length() <= maxKeyLength ? key : key.substring(0, maxKeyLength);
+    }
+
+    // --- State ---
+
+    record Entry(long id, String title, String coverUrl, List<String> variants, Set<String> keys,
+                 long seedPopularity, long weight) {
+        Entry withWeight(long w) {
+            return new Entry(id, title, coverUrl, variants, keys, seedPopularity, w);
+        }
+    }
+
+    /** Mutated only under the TitleSuggester monitor; readers only walk the trie and read entries. */
+    private static final class State {
+        final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        final SuggestTrie trie;
+
+        State(int topN) {
+            trie = new SuggestTrie(topN, id -> {
+                Entry e = entries.get(id);
+                return e == null ? 0 : e.weight();
+            });
+        }
+
+        void put(Entry e) {
+            Entry old = entries.put(e.id(), e);
+            if (old == null) {
+                for (String key : e.keys()) trie.add(key, e.id());
+                return;
+            }
+            for (String key : old.keys()) {
+                if (!e.keys().contains(key)) trie.remove(key, e.id());
+            }
+            for (String key : e.keys()) {
+                if (!old.keys().contains(key)) trie.add(key, e.id());
+                else if (old.weight() != e.weight()) trie.reweight(key);
+            }
+        }
+
+        // trie first: until the id is gone from every key its weight still ranks it
+        void remove(long id) {
+            Entry old = entries.get(id);
+            if (old == null) return;
+            for (String key : old.keys()) trie.remove(key, id);
+            entries.remove(id);
+        }
+    }
+}
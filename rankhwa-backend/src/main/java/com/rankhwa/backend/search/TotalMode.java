@@ -0,0 +1,26 @@
+package com.rankhwa.backend.search;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * How much the client wants to know about the size of a result set.
+ * Only EXACT ever runs a COUNT(*), and its result is cached per filter.
+ */
+public enum TotalMode {
+    NONE,       // items only
+    HAS_MORE,   // fetch size+1 rows and report whether another page exists
+    ESTIMATE,   // planner row estimate (exact for free when the in-memory index answers)
+    EXACT;      // COUNT(*), cached per normalized filter
+
+    public static TotalMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "total must be one of none, has_more, estimate, exact");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.rankhwa.backend.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable trigram -> row postings over lower-cased search texts. Used to prune the rows a
+ * query has to verify: {@link #build} indexes raw character trigrams for substring queries,
+ * which callers still confirm with {@link String#contains}, and {@link #buildWords} indexes
+ * pg_trgm word trigrams for typo-tolerant ones, confirmed with {@link WordSimilarity}.
+ */
+final class TrigramIndex {
+    private final Map<Long, int[]> postings;
+    private final int rows;
+    private final BiConsumer<String, LongConsumer> grams;
+
+    private TrigramIndex(Map<Long, int[]> postings, int rows, BiConsumer<String, LongConsumer> grams) {
+        this.postings = postings;
+        this.rows = rows;
+        this.grams = grams;
+    }
+
+    static TrigramIndex build(String[] texts) {
+        return build(texts, TrigramIndex::forEachGram);
+    }
+
+    static TrigramIndex buildWords(String[] texts) {
+        return build(texts, (t, sink) -> {
+            for (long g : WordSimilarity.trigrams(t)) sink.accept(g);
+        });
+    }
+
+    private static TrigramIndex build(String[] texts, BiConsumer<String, LongConsumer> grams) {
+        Map<Long, Integer> counts = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (String t : texts) {
+            seen.clear();
+            grams.accept(t, seen::add);
+            for (Long g : seen) counts.merge(g, 1, Integer::sum);
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(counts.size() * 2);
+        Map<Long, Integer> fill = new HashMap<>(counts.size() * 2);
+        counts.forEach((g, n) -> postings.put(g, new int[n]));
+        for (int row = 0; row < texts.length; row++) {
+            seen.clear();
+            grams.accept(texts[row], seen::add);
+            for (Long g : seen) {
+                int pos = fill.merge(g, 1, Integer::sum) - 1;
+                postings.get(g)[pos] = row; // rows are visited in order, so postings stay sorted
+            }
+        }
+        return new TrigramIndex(postings, texts.length, grams);
+    }
+
+    /**
+     * Rows that contain every trigram of {@code needle}, or {@code null} when the needle is
+     * too short to prune anything and every row has to be checked.
+     */
+    BitSet candidates(String needle) {
+        if (needle.length() < 3) return null;
+
+        Set<Long> needleGrams = new HashSet<>();
+        grams.accept(needle, needleGrams::add);
+        int[][] lists = new int[needleGrams.size()][];
+        int i = 0;
+        for (Long g : needleGrams) {
+            int[] p = postings.get(g);
+            if (p == null) return new BitSet(0);
+            lists[i++] = p;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        BitSet result = new BitSet(rows);
+        for (int row : lists[0]) result.set(row);
+        BitSet next = new BitSet(rows);
+        for (int k = 1; k < lists.length && !result.isEmpty(); k++) {
+            next.clear();
+            for (int row : lists[k]) next.set(row);
+            result.and(next);
+        }
+        return result;
+    }
+
+    // Rows holding at least min of the given distinct grams
+    BitSet sharing(long[] distinctGrams, int min) {
+        BitSet result = new BitSet(rows);
+        if (min <= 0) {
+            result.set(0, rows);
+            return result;
+        }
+        int[] hits = new int[rows];
+        for (long g : distinctGrams) {
+            int[] p = postings.get(g);
+            if (p == null) continue;
+            for (int row : p) {
+                if (++hits[row] == min) result.set(row);
+            }
+        }
+        return result;
+    }
+
+    int gramCount() {
+        return postings.size();
+    }
+
+    private static void forEachGram(String s, LongConsumer sink) {
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            sink.accept(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        }
+    }
+}
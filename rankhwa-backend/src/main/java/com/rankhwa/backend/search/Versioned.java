@@ -0,0 +1,6 @@
+package com.rankhwa.backend.search;
+
+import java.time.Instant;
+
+// A cached response body together with the validators it was built from
+public record Versioned<T>(T body, String etag, Instant lastModified) {}
@@ -0,0 +1,120 @@
+package com.rankhwa.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * Port of pg_trgm's word_similarity() so the catalog index matches and ranks typo-tolerant
+ * queries exactly like SEARCH_FILTER's {@code <%} operator and the relevance sort do.
+ *
+ * Trigrams are taken per word (a run of letters and digits, lower-cased) padded with two
+ * blanks in front and one behind, as pg_trgm does. The similarity is the best
+ * {@code shared / (query + extent - shared)} over every contiguous extent of the text's
+ * trigram sequence, counting distinct trigrams.
+ */
+final class WordSimilarity {
+    // pg_trgm.word_similarity_threshold default, the cut-off of the <% operator
+    static final double THRESHOLD = 0.6;
+
+    private WordSimilarity() {
+    }
+
+    static boolean matches(long[] query, long[] text) {
+        return query.length > 0 && wordSimilarity(query, text) >= THRESHOLD;
+    }
+
+    // Trigrams of every word in order of appearance, duplicates kept
+    static long[] trigrams(String s) {
+        long[] out = new long[2 * s.length()];
+        int[] word = new int[s.length() + 3];
+        int n = 0;
+        int i = 0;
+        while (i < s.length()) {
+            int cp = s.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            word[0] = ' ';
+            word[1] = ' ';
+            int len = 2;
+            while (i < s.length() && Character.isLetterOrDigit(cp = s.codePointAt(i))) {
+                word[len++] = Character.toLowerCase(cp);
+                i += Character.charCount(cp);
+            }
+            word[len++] = ' ';
+            for (int k = 0; k + 3 <= len; k++) {
+                out[n++] = ((long) word[k] << 42) | ((long) word[k + 1] << 21) | word[k + 2];
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    static long[] distinct(long[] grams) {
+        long[] sorted = grams.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[n++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    static float wordSimilarity(long[] query, long[] text) {
+        long[] q = distinct(query);
+        long[] u = distinct(text);
+        int[] index = new int[text.length];
+        for (int i = 0; i < text.length; i++) index[i] = Arrays.binarySearch(u, text[i]);
+        boolean[] found = new boolean[u.length];
+        for (int j = 0; j < u.length; j++) found[j] = Arrays.binarySearch(q, u[j]) >= 0;
+        return iterate(index, found, q.length);
+    }
+
+    // iterate_word_similarity(): extend the extent to each shared trigram, then try every lower bound
+    private static float iterate(int[] index, boolean[] found, int ulen1) {
+        int[] lastPos = new int[found.length];
+        Arrays.fill(lastPos, -1);
+        int ulen2 = 0, count = 0, lower = -1;
+        float max = 0f;
+        for (int i = 0; i < index.length; i++) {
+            int t = index[i];
+            if (lower >= 0 || found[t]) {
+                if (lastPos[t] < 0) {
+                    ulen2++;
+                    if (found[t]) count++;
+                }
+                lastPos[t] = i;
+            }
+            if (!found[t]) continue;
+
+            if (lower == -1) {
+                lower = i;
+                ulen2 = 1;
+            }
+            float cur = similarity(count, ulen1, ulen2);
+            int tmpCount = count, tmpUlen2 = ulen2, prevLower = lower;
+            for (int tmpLower = lower; tmpLower <= i; tmpLower++) {
+                float tmp = similarity(tmpCount, ulen1, tmpUlen2);
+                if (tmp > cur) {
+                    cur = tmp;
+                    ulen2 = tmpUlen2;
+                    lower = tmpLower;
+                    count = tmpCount;
+                }
+                int dropped = index[tmpLower];
+                if (lastPos[dropped] == tmpLower) {
+                    tmpUlen2--;
+                    if (found[dropped]) tmpCount--;
+                }
+            }
+            max = Math.max(max, cur);
+            for (int k = prevLower; k < lower; k++) {
+                if (lastPos[index[k]] == k) lastPos[index[k]] = -1;
+            }
+        }
+        return max;
+    }
+
+    private static float similarity(int count, int len1, int len2) {
+        return (float) count / (float) (len1 + len2 - count);
+    }
+}
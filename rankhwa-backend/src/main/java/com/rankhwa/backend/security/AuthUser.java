@@ -0,0 +1,7 @@
+package com.rankhwa.backend.security;
+
+/**
+ * Authenticated principal, built from verified token claims without a database read.
+ * Controllers that need more than the id load the user through {@link UserCache}.
+ */
+public record AuthUser(Long id, String email, int tokenVersion) {}
@@ -1,11 +1,13 @@
 package com.rankhwa.backend.security;
 
-import com.rankhwa.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -13,12 +15,15 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final TokenRevocations revocations;
+    private final MeterRegistry meters;
 
     @Override
     protected void doFilterInternal(HttpServletRequest req,
@@ -27,16 +32,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         throws ServletException, IOException {
         String auth = req.getHeader("Authorization");
         if (auth != null && auth.startsWith("Bearer ")) {
+            long start = System.nanoTime();
+            String outcome = "valid";
             try {
-                Long userId = jwtUtil.validateAndGetUserId(auth.substring(7));
-                userRepository.findById(userId).ifPresent(u -> {
+                // principal comes from the verified claims; no user row is read per request
+                AuthUser u = jwtUtil.authenticate(auth.substring(7));
+                if (!revocations.isRevoked(u)) {
                     UsernamePasswordAuthenticationToken authTok =
                             new UsernamePasswordAuthenticationToken(u, null, List.of());
                     SecurityContextHolder.getContext().setAuthentication(authTok);
-                });
+                } else {
+                    outcome = "revoked";
+                }
             } catch (Exception e) {
-                System.out.println("JWT validation failed → " + e.getMessage());
+                outcome = "invalid";
+                log.debug("JWT validation failed: {}", e.getMessage());
             }
+            Timer.builder("rankhwa.auth.jwt")
+                    .description("Bearer token validation")
+                    .tag("outcome", outcome)
+                    .register(meters)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
         chain.doFilter(req, res);
     }
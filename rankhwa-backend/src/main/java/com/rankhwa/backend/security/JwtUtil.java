@@ -1,18 +1,23 @@
 package com.rankhwa.backend.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
-    private Key key;
+    static final String TOKEN_VERSION = "tv";
+
+    private SecretKey key;
+    private JwtParser parser; // immutable and thread-safe, built once
 
     @PostConstruct
     void init() {
@@ -28,24 +33,33 @@ public class JwtUtil {
         }
 
         key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
     }
 
-    public String generateToken(Long userId, String email) {
+    public String generateToken(Long userId, String email, int tokenVersion) {
         Instant now = Instant.now();
         return Jwts.builder()
-                .setSubject(userId.toString())
+                .subject(userId.toString())
                 .claim("email", email)
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(now.plusSeconds(60 * 60 * 24))) // 24h expiration date
+                .claim(TOKEN_VERSION, tokenVersion)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(60 * 60 * 24))) // 24h expiration date
                 .signWith(key)
                 .compact();
     }
 
+    // Verifies signature and expiry; tokens issued before token versions existed count as version 0
+    public AuthUser authenticate(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Integer version = claims.get(TOKEN_VERSION, Integer.class);
+        return new AuthUser(
+                Long.valueOf(claims.getSubject()),
+                claims.get("email", String.class),
+                version == null ? 0 : version);
+    }
+
     public Long validateAndGetUserId(String token) {
-        return Long.valueOf(
-                Jwts.parser().setSigningKey(key).build()
-                        .parseClaimsJws(token).getBody().getSubject()
-        );
+        return authenticate(token).id();
     }
 
 }
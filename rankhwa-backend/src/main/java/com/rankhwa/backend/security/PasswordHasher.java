@@ -0,0 +1,196 @@
+package com.rankhwa.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt off the request threads: encode and matches run on a fixed pool of threads with a
+ * bounded queue, so a burst of logins or signups costs at most that many cores and catalog
+ * reads keep theirs.
+ *
+ * A call is refused with 503 when it is submitted if the hashes already ahead of it (going by
+ * the recent hash time) would keep it past timeout-ms, or if the queue is full. One that still
+ * waits past timeout-ms also gets 503, but BCrypt cannot be interrupted: a hash already running
+ * keeps its thread to the end, so only finished or withdrawn-before-start tasks free capacity.
+ *
+ * Per endpoint the hashing time (queue wait included), in-flight calls and rejections are
+ * published, and the pool itself as "password-hasher". A successful login whose hash was made
+ * at another cost than rankhwa.auth.bcrypt.strength also returns a fresh hash at the current
+ * cost, computed in the same task, so changing the cost re-hashes users as they log in.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHasher {
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meters;
+
+    @Value("${rankhwa.auth.bcrypt.strength:10}")
+    private int strength;
+    @Value("${rankhwa.auth.hashing.threads:0}")
+    private int threads;
+    @Value("${rankhwa.auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${rankhwa.auth.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private int poolSize;
+    // submitted and not yet finished (or withdrawn before they started)
+    private final AtomicInteger outstanding = new AtomicInteger();
+    // moving average of one task's run time
+    private volatile long taskNanos;
+
+    /** rehashed is the password at the current cost when the stored hash should be replaced, else null */
+    public record Verification(boolean matches, String rehashed) {
+    }
+
+    @PostConstruct
+    void start() {
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        poolSize = n;
+        long calibrate = System.nanoTime();
+        passwordEncoder.encode("calibration");
+        taskNanos = System.nanoTime() - calibrate;
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hasher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meters, executor, "password-hasher");
+        log.info("Password hashing: bcrypt cost {}, {} threads, queue {}, ~{} ms per hash",
+                strength, n, queueCapacity, taskNanos / 1_000_000);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String endpoint, String raw) {
+        return run(endpoint, () -> passwordEncoder.encode(raw));
+    }
+
+    public Verification verify(String endpoint, String raw, String hash) {
+        return run(endpoint, () -> {
+            if (!passwordEncoder.matches(raw, hash)) return new Verification(false, null);
+            return new Verification(true, cost(hash) != strength ? passwordEncoder.encode(raw) : null);
+        });
+    }
+
+    // $2a$10$... -> 10; -1 when it is not a BCrypt hash
+    private static int cost(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') return -1;
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private <T> T run(String endpoint, Callable<T> work) {
+        long start = System.nanoTime();
+        // this call finishes after every task ahead of it that shares its thread, plus its own
+        int ahead = outstanding.getAndIncrement();
+        if ((ahead / poolSize + 1) * taskNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+            outstanding.decrementAndGet();
+            throw busy(endpoint, "backlog");
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> task;
+        try {
+            task = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) return null;   // withdrawn while queued
+                long begin = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    taskNanos = (taskNanos * 7 + (System.nanoTime() - begin)) / 8;
+                    outstanding.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            outstanding.decrementAndGet();
+            throw busy(endpoint, "queue-full");
+        }
+        AtomicInteger active = inFlight(endpoint);
+        active.incrementAndGet();
+        try {
+            return task.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            withdraw(task, claimed);
+            throw busy(endpoint, "timeout");
+        } catch (InterruptedException e) {
+            withdraw(task, claimed);
+            Thread.currentThread().interrupt();
+            throw busy(endpoint, "interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            active.decrementAndGet();
+            Timer.builder("rankhwa.auth.hashing")
+                    .description("Password hashing per call, queue wait included")
+                    .tag("endpoint", endpoint)
+                    .register(meters)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Only a task that has not started gives its capacity back now; a running one keeps it until done
+    private void withdraw(Future<?> task, AtomicBoolean claimed) {
+        if (claimed.compareAndSet(false, true)) {
+            outstanding.decrementAndGet();
+            task.cancel(false);
+            executor.remove((Runnable) task);
+        }
+    }
+
+    private AtomicInteger inFlight(String endpoint) {
+        return inFlight.computeIfAbsent(endpoint, e -> {
+            AtomicInteger n = new AtomicInteger();
+            Gauge.builder("rankhwa.auth.hashing.in-flight", n, AtomicInteger::get)
+                    .description("Password hashing calls queued or running")
+                    .tag("endpoint", e)
+                    .register(meters);
+            return n;
+        });
+    }
+
+    private ResponseStatusException busy(String endpoint, String reason) {
+        Counter.builder("rankhwa.auth.hashing.rejected")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meters)
+                .increment();
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sign-ins right now, retry shortly");
+    }
+}
@@ -0,0 +1,59 @@
+package com.rankhwa.backend.security;
+
+import com.rankhwa.backend.repository.UserRepository;
+import com.rankhwa.backend.repository.UserTokenVersion;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of users.token_version for the (few) users who have ever revoked their tokens.
+ * The auth filter checks the token's "tv" claim against it instead of reading the user row.
+ * Revocations made on this instance apply at once; ones made on other instances are picked up
+ * by the scheduled refresh.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocations {
+    private final UserRepository userRepository;
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.auth.revocation-refresh-ms:30000}",
+            initialDelayString = "${rankhwa.auth.revocation-refresh-ms:30000}")
+    public void refresh() {
+        try {
+            for (UserTokenVersion v : userRepository.findRevokedTokenVersions()) {
+                versions.merge(v.getId(), v.getTokenVersion(), Math::max);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Token version refresh failed; keeping the versions already known", e);
+        }
+    }
+
+    public boolean isRevoked(AuthUser user) {
+        Integer current = versions.get(user.id());
+        return current != null && user.tokenVersion() < current;
+    }
+
+    // Invalidates every token issued to the user so far
+    @Transactional
+    public int revokeAll(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        int version = userRepository.findTokenVersion(userId).orElseThrow();
+        versions.merge(userId, version, Math::max);
+        return version;
+    }
+}
@@ -0,0 +1,43 @@
+package com.rankhwa.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rankhwa.backend.model.User;
+import com.rankhwa.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Short-lived, bounded cache of detached User rows for endpoints that need more than the token claims
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+    private final UserRepository userRepository;
+
+    @Value("${rankhwa.auth.user-cache.ttl-ms:60000}")
+    private long ttlMs;
+    @Value("${rankhwa.auth.user-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<Long, User> users;
+
+    @PostConstruct
+    void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    public Optional<User> get(Long id) {
+        return Optional.ofNullable(users.get(id, k -> userRepository.findById(k).orElse(null)));
+    }
+
+    public void evict(Long id) {
+        users.invalidate(id);
+    }
+}
@@ -0,0 +1,188 @@
+package com.rankhwa.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ListItemRepository;
+import com.rankhwa.backend.repository.RatingRepository;
+import com.rankhwa.backend.search.Leaderboards;
+import com.rankhwa.backend.search.Leaderboards.Ranking;
+import com.rankhwa.backend.search.ManhwaSearchService;
+import com.rankhwa.backend.search.SimilarTitles;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The "for you" feed behind GET /users/me/feed: titles the user has neither rated nor listed,
+ * ranked from what they have. Cached per user as ranked ids, so the cards stay current.
+ *
+ * A rated title is a seed weighing (score - 5.5) / 4.5, from +1 for a 10 down to -1 for a 1;
+ * a title that is only on a list weighs list-weight. Candidates are the seeds' precomputed
+ * neighbors ({@link SimilarTitles}), scoring seed weight times similarity summed over seeds,
+ * plus the most popular titles of the user's best-liked genres. Every candidate then gains
+ * genre-weight times the mean of its genres' affinities, the seed weight per genre over the
+ * total. Both stages are capped, max-seeds strongest seeds and max-candidates candidates,
+ * so a cache miss costs two primary-key scans and bounded in-memory work however long the
+ * history. Without any history the feed is the most popular titles, and a feed with fewer
+ * than size positive candidates (say, a user who has only rated titles low) is topped up with
+ * them, seeds excluded.
+ *
+ * A vote or list change drops that user's entry once committed; ttl-ms picks up rebuilt
+ * neighbors.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+    private static final int TOP_GENRES = 3;
+
+    private final RatingRepository ratingRepository;
+    private final ListItemRepository listItemRepository;
+    private final SimilarTitles similarTitles;
+    private final Leaderboards leaderboards;
+    private final ManhwaSearchService searchService;
+    private final MeterRegistry meters;
+
+    @Value("${rankhwa.feed.size:100}")
+    private int feedSize;
+    @Value("${rankhwa.feed.max-seeds:50}")
+    private int maxSeeds;
+    @Value("${rankhwa.feed.max-candidates:500}")
+    private int maxCandidates;
+    @Value("${rankhwa.feed.genre-candidates:50}")
+    private int genreCandidates;
+    @Value("${rankhwa.feed.genre-weight:0.3}")
+    private double genreWeight;
+    @Value("${rankhwa.feed.list-weight:0.5}")
+    private double listWeight;
+    @Value("${rankhwa.feed.cache.max-users:10000}")
+    private long maxUsers;
+    @Value("${rankhwa.feed.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    private Cache<Long, List<Long>> feeds;
+
+    @PostConstruct
+    void init() {
+        feeds = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meters, feeds, "feed");
+    }
+
+    public List<ManhwaSummary> feed(Long userId, int size) {
+        if (size <= 0) return List.of();
+        List<Long> ids = feeds.get(userId, this::rank);
+        return searchService.summaries(ids.size() <= size ? ids : ids.subList(0, size));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAggregatesChanged(RatingAggregatesChangedEvent event) {
+        for (VoteChange v : event.votes()) feeds.invalidate(v.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListItemsChanged(ListItemsChangedEvent event) {
+        feeds.invalidate(event.userId());
+    }
+
+    // --- Ranking ---
+
+    private List<Long> rank(Long userId) {
+        Map<Long, Double> seeds = new HashMap<>();
+        for (RatingRepository.ScoreRow r : ratingRepository.findAllScores(userId)) {
+            seeds.put(r.getManhwaId(), (r.getScore() - 5.5) / 4.5);
+        }
+        for (Long id : listItemRepository.findManhwaIdsByUserId(userId)) seeds.putIfAbsent(id, listWeight);
+        if (seeds.isEmpty()) {
+            return leaderboards.top(Ranking.POPULAR, "all", feedSize).stream().map(ManhwaSummary::id).toList();
+        }
+
+        // the strongest opinions either way; everything rated or listed stays excluded
+        List<Map.Entry<Long, Double>> strongest = seeds.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<Long, Double> e) -> -Math.abs(e.getValue()))
+                        .thenComparing(Map.Entry::getKey))
+                .limit(maxSeeds)
+                .toList();
+
+        Map<Long, ManhwaSummary> seedCards = cards(strongest.stream().map(Map.Entry::getKey).toList());
+        Map<String, Double> affinity = new HashMap<>();
+        double total = 0;
+        for (Map.Entry<Long, Double> seed : strongest) {
+            total += Math.abs(seed.getValue());
+            ManhwaSummary card = seedCards.get(seed.getKey());
+            if (card == null) continue;
+            for (String g : card.genres()) affinity.merge(g, seed.getValue(), Double::sum);
+        }
+        double norm = total;
+        affinity.replaceAll((g, a) -> a / norm);
+
+        Map<Long, Double> similar = new HashMap<>();
+        for (Map.Entry<Long, Double> seed : strongest) {
+            SimilarTitles.Neighborhood n = similarTitles.neighborhood(seed.getKey());
+            for (int i = 0; i < n.ids().length; i++) {
+                if (!seeds.containsKey(n.ids()[i])) similar.merge(n.ids()[i], seed.getValue() * n.scores()[i], Double::sum);
+            }
+        }
+        Map<Long, Double> scores = similar.size() > maxCandidates ? best(similar, maxCandidates) : similar;
+        affinity.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry::getKey))
+                .limit(TOP_GENRES)
+                .forEach(e -> {
+                    for (ManhwaSummary s : leaderboards.top(Ranking.POPULAR, "genre:" + e.getKey(), genreCandidates)) {
+                        if (!seeds.containsKey(s.id())) scores.putIfAbsent(s.id(), 0.0);
+                    }
+                });
+
+        Map<Long, ManhwaSummary> cards = cards(List.copyOf(scores.keySet()));
+        Map<Long, Double> ranked = new HashMap<>(cards.size() * 2);
+        for (ManhwaSummary card : cards.values()) {
+            double g = 0;
+            for (String genre : card.genres()) g += affinity.getOrDefault(genre, 0.0);
+            if (!card.genres().isEmpty()) g /= card.genres().size();
+            double score = scores.get(card.id()) + genreWeight * g;
+            if (score > 0) ranked.put(card.id(), score);
+        }
+        List<Long> feed = new ArrayList<>(best(ranked, feedSize).keySet());
+        if (feed.size() < feedSize) {
+            Set<Long> taken = new HashSet<>(feed);
+            for (ManhwaSummary s : leaderboards.top(Ranking.POPULAR, "all", feedSize + seeds.size())) {
+                if (feed.size() == feedSize) break;
+                if (!seeds.containsKey(s.id()) && taken.add(s.id())) feed.add(s.id());
+            }
+        }
+        return List.copyOf(feed);
+    }
+
+    private Map<Long, ManhwaSummary> cards(List<Long> ids) {
+        return searchService.summaries(ids).stream().collect(Collectors.toMap(ManhwaSummary::id, Function.identity()));
+    }
+
+    // The n highest scores, best first, ties by id
+    private static Map<Long, Double> best(Map<Long, Double> scores, int n) {
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry::getKey))
+                .limit(n)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a,
+                        LinkedHashMap::new));
+    }
+}
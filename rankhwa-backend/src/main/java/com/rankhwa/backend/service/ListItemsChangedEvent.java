@@ -0,0 +1,4 @@
+package com.rankhwa.backend.service;
+
+// Published when titles were added to or removed from any of a user's lists; listeners act after commit
+public record ListItemsChangedEvent(Long userId) {}
@@ -2,21 +2,39 @@ package com.rankhwa.backend.service;
 
 import com.rankhwa.backend.repository.ListItemRepository;
 import com.rankhwa.backend.repository.ListRepository;
+import com.rankhwa.backend.dto.BulkItemsResult;
+import com.rankhwa.backend.dto.BulkItemsResult.ItemResult;
+import com.rankhwa.backend.dto.BulkItemsResult.Status;
 import com.rankhwa.backend.dto.ListDetail;
 import com.rankhwa.backend.dto.ListSummary;
 import com.rankhwa.backend.model.ListEntity;
 import com.rankhwa.backend.model.ListItem;
 import com.rankhwa.backend.model.ListItemPK;
+import com.rankhwa.backend.search.ManhwaSearchService;
 import com.rankhwa.backend.model.User;
+import com.rankhwa.backend.repository.ListHeader;
 import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.coyote.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,57 +42,65 @@ public class ListService {
     private final ListRepository listRepository;
     private final ListItemRepository listItemRepository;
     private final ManhwaRepository manhwaRepository;
+    private final UserRepository userRepository;
+    private final ManhwaSearchService searchService;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
 
-    private ListEntity requireOwner(User user, Long listId) {
+    @Value("${rankhwa.lists.bulk.max-items:1000}")
+    private int maxBulkItems;
+
+    private ListEntity requireOwner(Long userId, Long listId) {
         ListEntity l = listRepository.findById(listId).orElseThrow();
-        if (!l.getUser().getId().equals(user.getId())) {
+        if (!l.getUser().getId().equals(userId)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
         return l;
     }
 
-    public ListEntity getOwned(User user, Long listId) {
-        ListEntity l = listRepository.findById(listId).orElseThrow();
-        if(!l.getUser().getId().equals(user.getId()))
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
-        return l;
+    // CRUD Operations
+    public List<ListSummary> all (Long userId) {
+        return listRepository.findSummariesByUserId(userId);
     }
 
-    // CRUD Operations
-    public List<ListSummary> all (User user) {
-        return listRepository.findByUserId(user.getId()).stream()
-                .map(l -> new ListSummary(
-                        l.getId(), l.getName(), l.isDefault(),
-                        listItemRepository.countByListId(l.getId()), l.getCreatedAt()))
-                .toList();
+    // Header and ids are one indexed query each; expand adds a single batched summary fetch
+    public ListDetail detail(Long userId, Long listId, boolean expand) {
+        ListHeader l = listRepository.findHeader(listId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!l.getUserId().equals(userId)) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+
+        List<Long> ids = listItemRepository.findManhwaIdsByListId(listId);
+        return new ListDetail(l.getId(), l.getName(), l.getIsDefault(), ids,
+                expand ? searchService.summaries(ids) : null);
     }
 
-    public ListDetail addList(User user, String name) {
-        if (listRepository.existsByUserIdAndName(user.getId(), name))
+    public ListDetail addList(Long userId, String name) {
+        if (listRepository.existsByUserIdAndName(userId, name))
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "List name already exists");
 
         ListEntity l = new ListEntity();
-        l.setUser(user); l.setName(name);
+        l.setUser(userRepository.getReferenceById(userId)); l.setName(name);
         listRepository.save(l);
         return new ListDetail(l.getId(), l.getName(), false, List.of());
     }
 
-    public void rename(User user, Long listId, String newName) {
-        ListEntity l = requireOwner(user, listId);
+    public void rename(Long userId, Long listId, String newName) {
+        ListEntity l = requireOwner(userId, listId);
         if(l.isDefault()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Default lists cannot be renamed");
         l.setName(newName);
         listRepository.save(l);
     }
 
-    public void delete(User user, Long listId) {
-        ListEntity l = requireOwner(user, listId);
+    public void delete(Long userId, Long listId) {
+        ListEntity l = requireOwner(userId, listId);
         if(l.isDefault()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Default lists cannot be deleted");
         listRepository.delete(l);
+        events.publishEvent(new ListItemsChangedEvent(userId));
     }
 
-    public void addItem(User user, Long listId, Long manhwaId) {
-        ListEntity l = requireOwner(user, listId);
+    public void addItem(Long userId, Long listId, Long manhwaId) {
+        ListEntity l = requireOwner(userId, listId);
         ListItemPK pk = new ListItemPK(listId, manhwaId);
         if (listItemRepository.existsById(pk)) return;
 
@@ -83,11 +109,13 @@ public class ListService {
         li.setList(l);
         li.setManhwa(manhwaRepository.getReferenceById(manhwaId));
         listItemRepository.save(li);
+        events.publishEvent(new ListItemsChangedEvent(userId));
     }
 
-    public void removeItem(User user, Long listId, Long manhwaId) {
-        requireOwner(user, listId);
+    public void removeItem(Long userId, Long listId, Long manhwaId) {
+        requireOwner(userId, listId);
         listItemRepository.deleteById(new ListItemPK(listId, manhwaId));
+        events.publishEvent(new ListItemsChangedEvent(userId));
     }
 
 
@@ -100,4 +128,123 @@ public class ListService {
             listRepository.save(l);
         }
     }
+
+    // --- Bulk item operations: one ownership check, one batched statement per kind of write ---
+
+    @Transactional
+    public BulkItemsResult addItems(Long userId, Long listId, List<Long> manhwaIds) {
+        requireOwnedHeaders(userId, List.of(listId));
+        List<Long> ids = distinct(manhwaIds);
+        Set<Long> known = existingManhwa(ids);
+        Map<Long, Boolean> added = insert(listId, ids.stream().filter(known::contains).toList());
+        if (added.containsValue(true)) events.publishEvent(new ListItemsChangedEvent(userId));
+
+        return new BulkItemsResult(listId, ids.stream()
+                .map(id -> new ItemResult(id, !known.contains(id) ? Status.NOT_FOUND
+                        : added.get(id) ? Status.ADDED : Status.ALREADY_PRESENT))
+                .toList());
+    }
+
+    @Transactional
+    public BulkItemsResult removeItems(Long userId, Long listId, List<Long> manhwaIds) {
+        requireOwnedHeaders(userId, List.of(listId));
+        List<Long> ids = distinct(manhwaIds);
+        Map<Long, Boolean> removed = delete(listId, ids);
+        if (removed.containsValue(true)) events.publishEvent(new ListItemsChangedEvent(userId));
+
+        return new BulkItemsResult(listId, ids.stream()
+                .map(id -> new ItemResult(id, removed.get(id) ? Status.REMOVED : Status.NOT_IN_LIST))
+                .toList());
+    }
+
+    // Items already in the target stay there; either way they leave the source list
+    @Transactional
+    public BulkItemsResult moveItems(Long userId, Long listId, Long targetListId, List<Long> manhwaIds) {
+        if (targetListId == null || targetListId.equals(listId))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "targetListId must name another list");
+        requireOwnedHeaders(userId, List.of(listId, targetListId));
+        List<Long> ids = distinct(manhwaIds);
+
+        Map<Long, Boolean> removed = delete(listId, ids);
+        insert(targetListId, ids.stream().filter(removed::get).toList());
+
+        return new BulkItemsResult(listId, ids.stream()
+                .map(id -> new ItemResult(id, removed.get(id) ? Status.MOVED : Status.NOT_IN_LIST))
+                .toList());
+    }
+
+    // The list ends up holding exactly the known ids given; results also report what was dropped
+    @Transactional
+    public BulkItemsResult replaceItems(Long userId, Long listId, List<Long> manhwaIds) {
+        requireOwnedHeaders(userId, List.of(listId));
+        List<Long> ids = distinct(manhwaIds);
+        Set<Long> known = existingManhwa(ids);
+
+        List<Long> dropped = listItemRepository.findManhwaIdsByListId(listId).stream()
+                .filter(id -> !known.contains(id)).toList();
+        delete(listId, dropped);
+        Map<Long, Boolean> added = insert(listId, ids.stream().filter(known::contains).toList());
+        if (!dropped.isEmpty() || added.containsValue(true)) events.publishEvent(new ListItemsChangedEvent(userId));
+
+        List<ItemResult> results = new ArrayList<>(ids.size() + dropped.size());
+        for (Long id : ids) {
+            results.add(new ItemResult(id, !known.contains(id) ? Status.NOT_FOUND
+                    : added.get(id) ? Status.ADDED : Status.ALREADY_PRESENT));
+        }
+        for (Long id : dropped) results.add(new ItemResult(id, Status.REMOVED));
+        return new BulkItemsResult(listId, results);
+    }
+
+    private void requireOwnedHeaders(Long userId, List<Long> listIds) {
+        Map<Long, ListHeader> headers = listRepository.findHeaders(listIds).stream()
+                .collect(Collectors.toMap(ListHeader::getId, Function.identity()));
+        for (Long id : listIds) {
+            ListHeader h = headers.get(id);
+            if (h == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "List " + id + " not found");
+            if (!h.getUserId().equals(userId)) throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+    }
+
+    private List<Long> distinct(List<Long> manhwaIds) {
+        if (manhwaIds == null || manhwaIds.isEmpty())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "manhwaIds is required");
+        if (manhwaIds.size() > maxBulkItems)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBulkItems + " items per request");
+        if (manhwaIds.contains(null))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "manhwaIds must not contain null");
+        return List.copyOf(new LinkedHashSet<>(manhwaIds));
+    }
+
+    private Set<Long> existingManhwa(List<Long> ids) {
+        return new HashSet<>(jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM manhwa WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (rs, i) -> rs.getLong(1)));
+    }
+
+    // manhwaId -> whether the row was new, from the per-statement counts of one JDBC batch
+    private Map<Long, Boolean> insert(Long listId, List<Long> manhwaIds) {
+        if (manhwaIds.isEmpty()) return Map.of();
+        int[] counts = jdbc.batchUpdate("""
+                INSERT INTO list_items (list_id, manhwa_id, added_at)
+                VALUES (?, ?, now())
+                ON CONFLICT DO NOTHING
+                """, manhwaIds.stream().map(id -> new Object[]{listId, id}).toList());
+        return zip(manhwaIds, counts);
+    }
+
+    // manhwaId -> whether a row was deleted
+    private Map<Long, Boolean> delete(Long listId, List<Long> manhwaIds) {
+        if (manhwaIds.isEmpty()) return Map.of();
+        int[] counts = jdbc.batchUpdate("DELETE FROM list_items WHERE list_id = ? AND manhwa_id = ?",
+                manhwaIds.stream().map(id -> new Object[]{listId, id}).toList());
+        return zip(manhwaIds, counts);
+    }
+
+    private static Map<Long, Boolean> zip(List<Long> ids, int[] counts) {
+        Map<Long, Boolean> out = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) out.put(ids.get(i), counts[i] > 0);
+        return out;
+    }
 }
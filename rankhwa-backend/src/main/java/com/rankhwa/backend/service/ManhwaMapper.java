@@ -0,0 +1,89 @@
+package com.rankhwa.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rankhwa.backend.dto.ManhwaDetail;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.model.Manhwa;
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Entity/row -> DTO mapping shared by the controller, search and the catalog index.
+ *
+ * The jsonb genres and titles columns are decoded once per manhwa id and reused while the raw
+ * text is unchanged, so a page of rows costs string comparisons instead of JSON parses.
+ * Identical genre arrays (there are only a few hundred combinations) share one immutable list.
+ */
+@Component
+public class ManhwaMapper {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_DECODED = 100_000;
+
+    private record Decoded(String rawGenres, String rawTitles, List<String> genres, String romaji) {
+        boolean matches(String g, String t) {
+            return Objects.equals(rawGenres, g) && Objects.equals(rawTitles, t);
+        }
+    }
+
+    private final Cache<Long, Decoded> decoded = Caffeine.newBuilder().maximumSize(MAX_DECODED).build();
+    private final Cache<String, List<String>> genreLists = Caffeine.newBuilder().maximumSize(MAX_DECODED).build();
+
+    private static String nodeText(JsonNode n, String key) {
+        return (n != null && n.hasNonNull(key)) ? n.get(key).asText() : null;
+    }
+
+    public ManhwaSummary toSummary(ManhwaSummaryRow r) {
+        Decoded d = decode(r.getId(), r.getGenres(), r.getTitles());
+        return new ManhwaSummary(
+                r.getId(), r.getTitle(), r.getAuthor(),
+                r.getAvgRating(), r.getVoteCount(), r.getCoverUrl(),
+                r.getBannerUrl(), r.getChapters(),
+                d.genres(),
+                r.getTitleEnglish(), d.romaji(), r.getTitleNative()
+        );
+    }
+
+    public ManhwaDetail toDetail(Manhwa m) {
+        Decoded d = decode(m.getId(), m.getGenres(), m.getTitles());
+        return new ManhwaDetail(
+                m.getId(), m.getTitle(), m.getAuthor(), m.getDescription(),
+                m.getReleaseDate(), m.getAvgRating(), m.getVoteCount(), m.getCoverUrl(),
+                m.getBannerUrl(), m.getChapters(),
+                d.genres(),
+                m.getTitleEnglish(), d.romaji(), m.getTitleNative()
+        );
+    }
+
+    private Decoded decode(Long id, String rawGenres, String rawTitles) {
+        Decoded d = id == null ? null : decoded.getIfPresent(id);
+        if (d != null && d.matches(rawGenres, rawTitles)) return d;
+
+        JsonNode titles = null;
+        try { titles = MAPPER.readTree(rawTitles); } catch (Exception ignored) {}
+        d = new Decoded(rawGenres, rawTitles, internGenres(rawGenres), nodeText(titles, "romaji"));
+        if (id != null) decoded.put(id, d);
+        return d;
+    }
+
+    private List<String> internGenres(String json) {
+        if (json == null || json.isBlank()) return Collections.emptyList();
+        return genreLists.get(json, this::parseGenres);
+    }
+
+    public List<String> parseGenres(String json) {
+        if (json == null || json.isBlank()) return Collections.emptyList();
+        try {
+            return List.copyOf(MAPPER.readValue(json, new TypeReference<List<String>>() {}));
+        } catch (Exception e) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.rankhwa.backend.service;
+
+import java.time.Instant;
+
+// manhwa.row_version / updated_at: what GET /manhwa/{id} validators are derived from
+public record ManhwaVersion(Long id, Long version, Instant updatedAt) {
+    public String etag() {
+        return id + "." + version;
+    }
+}
@@ -0,0 +1,7 @@
+package com.rankhwa.backend.service;
+
+import java.time.Instant;
+
+// Cached per-manhwa rating fields as they stand after a rating write, with the row version it produced
+public record RatingAggregate(Long manhwaId, Double avgRating, Integer voteCount, Double weightedScore,
+                              Long rowVersion, Instant updatedAt) {}
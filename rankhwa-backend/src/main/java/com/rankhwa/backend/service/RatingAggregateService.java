@@ -0,0 +1,82 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.repository.ManhwaRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps manhwa.avg_rating / vote_count current from a running rating_sum instead of
+ * re-aggregating the ratings table on every vote. Rows seeded from AniList carry external
+ * numbers and no running sum; the first native vote adopts them with one full recompute.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RatingAggregateService {
+    private final ManhwaRepository manhwaRepository;
+    private final WeightedScoreService weighted;
+    private final ApplicationEventPublisher events;
+
+    // Joins the caller's transaction: a new vote is (score, +1), a changed score (new - old, 0),
+    // a removed vote (-score, -1).
+    @Transactional
+    public RatingAggregate applyDelta(Long manhwaId, long scoreDelta, int countDelta, VoteChange vote) {
+        RatingAggregate aggregate = apply(manhwaId, scoreDelta, countDelta);
+        events.publishEvent(RatingAggregatesChangedEvent.of(aggregate, vote));
+        return aggregate;
+    }
+
+    // One statement per manhwa for a whole batch of votes, one change event for all of them
+    @Transactional
+    public List<RatingAggregate> applyDeltas(Map<Long, Delta> deltas, List<VoteChange> votes) {
+        List<RatingAggregate> changed = new ArrayList<>(deltas.size());
+        deltas.forEach((manhwaId, d) -> {
+            if (d.scoreDelta() != 0 || d.countDelta() != 0) {
+                changed.add(apply(manhwaId, d.scoreDelta(), d.countDelta()));
+            }
+        });
+        if (!changed.isEmpty() || !votes.isEmpty()) events.publishEvent(new RatingAggregatesChangedEvent(changed, votes));
+        return changed;
+    }
+
+    private RatingAggregate apply(Long manhwaId, long scoreDelta, int countDelta) {
+        int m = weighted.priorVotes();
+        double c = weighted.mean();
+        if (manhwaRepository.applyRatingDelta(manhwaId, scoreDelta, countDelta, m, c) == 0) {
+            manhwaRepository.recomputeRatingAggregate(manhwaId, m, c);
+        }
+        return manhwaRepository.findRatingAggregate(manhwaId);
+    }
+
+    // Repairs rows whose running sum/count no longer matches the ratings table
+    @Transactional
+    @Scheduled(fixedDelayString = "${rankhwa.ratings.reconcile-ms:3600000}",
+            initialDelayString = "${rankhwa.ratings.reconcile-ms:3600000}")
+    public int reconcile() {
+        List<Long> drifted = manhwaRepository.findRatingAggregateDrift();
+        if (drifted.isEmpty()) return 0;
+
+        List<RatingAggregate> repaired = new ArrayList<>(drifted.size());
+        for (Long id : drifted) {
+            manhwaRepository.recomputeRatingAggregate(id, weighted.priorVotes(), weighted.mean());
+            repaired.add(manhwaRepository.findRatingAggregate(id));
+        }
+        events.publishEvent(new RatingAggregatesChangedEvent(repaired));
+        log.warn("Rating aggregate drift repaired for {} manhwa: {}", drifted.size(), drifted);
+        return drifted.size();
+    }
+
+    public record Delta(long scoreDelta, int countDelta) {
+        public Delta plus(long score, int count) {
+            return new Delta(scoreDelta + score, countDelta + count);
+        }
+    }
+}
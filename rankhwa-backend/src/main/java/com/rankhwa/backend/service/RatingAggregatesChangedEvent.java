@@ -0,0 +1,15 @@
+package com.rankhwa.backend.service;
+
+import java.util.List;
+
+// Published inside the rating transaction; listeners act on it after commit.
+// votes are the ratings rows written or deleted behind it (none for drift repairs).
+public record RatingAggregatesChangedEvent(List<RatingAggregate> aggregates, List<VoteChange> votes) {
+    public RatingAggregatesChangedEvent(List<RatingAggregate> aggregates) {
+        this(aggregates, List.of());
+    }
+
+    public static RatingAggregatesChangedEvent of(RatingAggregate aggregate, VoteChange vote) {
+        return new RatingAggregatesChangedEvent(List.of(aggregate), List.of(vote));
+    }
+}
@@ -0,0 +1,455 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.model.RatingPK;
+import com.rankhwa.backend.repository.RatingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Entry point for rating writes. In {@code direct} mode every vote is its own transaction
+ * through {@link RatingService}. In {@code queued} mode votes land in a bounded in-memory
+ * queue keyed by (user, manhwa), so a user re-voting before the next flush only keeps the
+ * last score. A single flusher thread (virtual when spring.threads.virtual.enabled is on) writes
+ * each batch with JDBC batch upserts and applies the aggregate deltas once per manhwa.
+ *
+ * With {@code ack=async} a queued vote is acknowledged before it is durable and is lost if
+ * the process dies first; {@code ack=sync} holds the request until its batch commits.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RatingIngestService {
+    public enum Mode { DIRECT, QUEUED }
+    public enum Backpressure { REJECT, BLOCK, DIRECT }
+    public enum Ack { ASYNC, SYNC }
+    public enum Outcome { APPLIED, ACCEPTED, NOT_FOUND }
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int REMOVE = 0;
+
+    private final RatingService ratingService;
+    private final RatingRepository ratingRepository;
+    private final RatingAggregateService aggregates;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final MeterRegistry meters;
+    // virtual threads when spring.threads.virtual.enabled is on (Java 21+)
+    private final SimpleAsyncTaskExecutorBuilder threads;
+
+    @Value("${rankhwa.ratings.ingest.mode:direct}")
+    private Mode mode;
+    @Value("${rankhwa.ratings.ingest.capacity:10000}")
+    private int capacity;
+    @Value("${rankhwa.ratings.ingest.batch-size:500}")
+    private int batchSize;
+    @Value("${rankhwa.ratings.ingest.flush-ms:250}")
+    private long flushMs;
+    @Value("${rankhwa.ratings.ingest.backpressure:reject}")
+    private Backpressure backpressure;
+    @Value("${rankhwa.ratings.ingest.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+    @Value("${rankhwa.ratings.ingest.ack:async}")
+    private Ack ack;
+    @Value("${rankhwa.ratings.ingest.sync-ack-timeout-ms:5000}")
+    private long syncAckTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition batchReady = lock.newCondition();
+    private final LinkedHashMap<RatingPK, PendingVote> pending = new LinkedHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private volatile boolean running;
+    private SimpleAsyncTaskExecutor flusher;
+
+    private Timer flushTimer;
+    private DistributionSummary batchSizes;
+    private Counter coalesced;
+    private Counter rejected;
+    private Timer rateTimer;
+
+    private static final class PendingVote {
+        final RatingPK pk;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        int score; // REMOVE deletes the rating
+        int attempts;
+
+        PendingVote(RatingPK pk, int score) {
+            this.pk = pk;
+            this.score = score;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("rankhwa.ratings.ingest.queue.depth", depth, AtomicInteger::get)
+                .description("Votes waiting for the next flush")
+                .register(meters);
+        flushTimer = Timer.builder("rankhwa.ratings.ingest.flush")
+                .description("Time to write one batch of votes")
+                .publishPercentileHistogram()
+                .register(meters);
+        batchSizes = DistributionSummary.builder("rankhwa.ratings.ingest.batch.size").register(meters);
+        coalesced = Counter.builder("rankhwa.ratings.ingest.coalesced").register(meters);
+        rejected = Counter.builder("rankhwa.ratings.ingest.rejected").register(meters);
+        rateTimer = Timer.builder("rankhwa.ratings.rate")
+                .description("RatingService.rate, commit included")
+                .publishPercentileHistogram()
+                .register(meters);
+
+        if (mode == Mode.QUEUED) {
+            running = true;
+            flusher = threads.threadNamePrefix("rating-ingest-flusher-")
+                    .taskTerminationTimeout(Duration.ofSeconds(10))
+                    .build();
+            flusher.execute(this::runFlusher);
+            log.info("Rating ingest queued: capacity={}, batchSize={}, flushMs={}, backpressure={}, ack={}",
+                    capacity, batchSize, flushMs, backpressure, ack);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher == null) return;
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            batchReady.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.close(); // waits up to the termination timeout for the last flush
+    }
+
+    // --- Public API ---
+
+    public Outcome rate(Long userId, Long manhwaId, int score) {
+        if (mode == Mode.DIRECT) {
+            rateTimer.record(() -> ratingService.rate(userId, manhwaId, score));
+            return Outcome.APPLIED;
+        }
+        CompletableFuture<Void> done = enqueue(new RatingPK(userId, manhwaId), score);
+        if (done == null) {
+            rateTimer.record(() -> ratingService.rate(userId, manhwaId, score));
+            return Outcome.APPLIED;
+        }
+        return acknowledge(done);
+    }
+
+    public Outcome unrate(Long userId, Long manhwaId) {
+        if (mode == Mode.DIRECT) {
+            return ratingService.unrate(userId, manhwaId) ? Outcome.APPLIED : Outcome.NOT_FOUND;
+        }
+        CompletableFuture<Void> done = enqueue(new RatingPK(userId, manhwaId), REMOVE);
+        if (done == null) {
+            return ratingService.unrate(userId, manhwaId) ? Outcome.APPLIED : Outcome.NOT_FOUND;
+        }
+        return acknowledge(done);
+    }
+
+    // Score of a vote still waiting in the queue (0 for a pending removal), for read-your-writes
+    public Optional<Integer> pendingScore(Long userId, Long manhwaId) {
+        if (mode == Mode.DIRECT) return Optional.empty();
+        lock.lock();
+        try {
+            PendingVote v = pending.get(new RatingPK(userId, manhwaId));
+            return v == null ? Optional.empty() : Optional.of(v.score);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The caller's scores for many manhwa at once (rated ids only), queued votes included
+    public Map<Long, Integer> scores(Long userId, Collection<Long> manhwaIds) {
+        if (manhwaIds.isEmpty()) return Map.of();
+        // snapshot the queue first: a vote flushed meanwhile is then seen by the query instead
+        Map<Long, Integer> queued = new HashMap<>();
+        if (mode == Mode.QUEUED) {
+            lock.lock();
+            try {
+                for (Long id : manhwaIds) {
+                    PendingVote v = pending.get(new RatingPK(userId, id));
+                    if (v != null) queued.put(id, v.score);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Map<Long, Integer> out = new HashMap<>(manhwaIds.size() * 2);
+        for (RatingRepository.ScoreRow r : ratingRepository.findScores(userId, manhwaIds)) {
+            out.put(r.getManhwaId(), r.getScore());
+        }
+        queued.forEach((id, score) -> {
+            if (score == REMOVE) out.remove(id);
+            else out.put(id, score);
+        });
+        return out;
+    }
+
+    private Outcome acknowledge(CompletableFuture<Void> done) {
+        if (ack == Ack.ASYNC) return Outcome.ACCEPTED;
+        try {
+            done.get(syncAckTimeoutMs, TimeUnit.MILLISECONDS);
+            return Outcome.APPLIED;
+        } catch (TimeoutException e) {
+            return Outcome.ACCEPTED; // still queued, just not confirmed yet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.ACCEPTED;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException rse) throw rse;
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Rating could not be saved", e.getCause());
+        }
+    }
+
+    // Returns null when backpressure says the caller should write synchronously instead
+    private CompletableFuture<Void> enqueue(RatingPK pk, int score) {
+        lock.lock();
+        try {
+            PendingVote existing = pending.get(pk);
+            if (existing != null) {
+                existing.score = score;
+                coalesced.increment();
+                return existing.done;
+            }
+            if (pending.size() >= capacity) {
+                switch (backpressure) {
+                    case DIRECT -> {
+                        return null;
+                    }
+                    case BLOCK -> {
+                        long nanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+                        while (pending.size() >= capacity && nanos > 0) nanos = notFull.awaitNanos(nanos);
+                        if (pending.size() >= capacity) throw queueFull();
+                    }
+                    case REJECT -> throw queueFull();
+                }
+            }
+            PendingVote v = new PendingVote(pk, score);
+            pending.put(pk, v);
+            depth.set(pending.size());
+            if (pending.size() == 1) notEmpty.signal();
+            if (pending.size() >= batchSize) batchReady.signal();
+            return v.done;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw queueFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ResponseStatusException queueFull() {
+        rejected.increment();
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Rating queue is full, retry shortly");
+    }
+
+    // --- Flusher ---
+
+    private void runFlusher() {
+        while (true) {
+            List<PendingVote> batch;
+            try {
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                if (!running) return;
+                continue;
+            }
+            flush(batch);
+        }
+    }
+
+    // Waits for the first vote, then up to flushMs for a full batch
+    private List<PendingVote> takeBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running && pending.isEmpty()) notEmpty.await();
+            long nanos = TimeUnit.MILLISECONDS.toNanos(flushMs);
+            while (running && pending.size() < batchSize && nanos > 0) nanos = batchReady.awaitNanos(nanos);
+
+            List<PendingVote> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<PendingVote> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+                it.remove();
+            }
+            depth.set(pending.size());
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush(List<PendingVote> batch) {
+        long start = System.nanoTime();
+        try {
+            List<PendingVote> written = tx.execute(status -> write(batch));
+            written.forEach(v -> v.done.complete(null));
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} votes failed", batch.size(), e);
+            retryOrFail(batch, e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private List<PendingVote> write(List<PendingVote> batch) {
+        // votes for titles that do not exist would fail the whole batch on the foreign key
+        Set<Long> known = new HashSet<>(jdbc.query(
+                con -> arrayStatement(con.prepareStatement("SELECT id FROM manhwa WHERE id = ANY(?)"),
+                        batch.stream().map(v -> v.pk.getManhwaId()).distinct().toArray(Long[]::new)),
+                (rs, i) -> rs.getLong(1)));
+        List<PendingVote> votes = new ArrayList<>(batch.size());
+        for (PendingVote v : batch) {
+            if (known.contains(v.pk.getManhwaId())) votes.add(v);
+            else v.done.completeExceptionally(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown manhwa"));
+        }
+        if (votes.isEmpty()) return votes;
+
+        Map<RatingPK, Integer> oldScores = new HashMap<>();
+        Map<RatingPK, Instant> oldTimes = new HashMap<>();
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    SELECT r.user_id, r.manhwa_id, r.score, r.updated_at
+                    FROM ratings r
+                    JOIN unnest(?, ?) AS v(user_id, manhwa_id)
+                      ON r.user_id = v.user_id AND r.manhwa_id = v.manhwa_id
+                    FOR UPDATE OF r
+                    """);
+            ps.setArray(1, con.createArrayOf("bigint", votes.stream().map(v -> v.pk.getUserId()).toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", votes.stream().map(v -> v.pk.getManhwaId()).toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            RatingPK pk = new RatingPK(rs.getLong(1), rs.getLong(2));
+            oldScores.put(pk, rs.getInt(3));
+            Timestamp t = rs.getTimestamp(4);
+            if (t != null) oldTimes.put(pk, t.toInstant());
+        });
+
+        // one timestamp for the batch, so the change events carry exactly what was written
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+        List<PendingVote> upserts = new ArrayList<>();
+        List<PendingVote> removals = new ArrayList<>();
+        Map<Long, RatingAggregateService.Delta> deltas = new HashMap<>();
+        List<VoteChange> changes = new ArrayList<>(votes.size());
+        for (PendingVote v : votes) {
+            Integer old = oldScores.get(v.pk);
+            if (v.score == REMOVE) {
+                if (old == null) continue;
+                removals.add(v);
+                changes.add(new VoteChange(v.pk.getUserId(), v.pk.getManhwaId(), oldTimes.get(v.pk), null));
+                deltas.merge(v.pk.getManhwaId(), new RatingAggregateService.Delta(-old, -1),
+                        (a, b) -> a.plus(b.scoreDelta(), b.countDelta()));
+            } else {
+                upserts.add(v);
+                changes.add(new VoteChange(v.pk.getUserId(), v.pk.getManhwaId(), oldTimes.get(v.pk), now));
+                deltas.merge(v.pk.getManhwaId(),
+                        old == null ? new RatingAggregateService.Delta(v.score, 1)
+                                    : new RatingAggregateService.Delta(v.score - old, 0),
+                        (a, b) -> a.plus(b.scoreDelta(), b.countDelta()));
+            }
+        }
+
+        if (!upserts.isEmpty()) {
+            jdbc.batchUpdate("""
+                    INSERT INTO ratings (user_id, manhwa_id, score, updated_at)
+                    VALUES (?, ?, ?, ?)
+                    ON CONFLICT (user_id, manhwa_id)
+                    DO UPDATE SET score = EXCLUDED.score, updated_at = EXCLUDED.updated_at
+                    """, upserts, batchSize, (ps, v) -> {
+                ps.setLong(1, v.pk.getUserId());
+                ps.setLong(2, v.pk.getManhwaId());
+                ps.setInt(3, v.score);
+                ps.setTimestamp(4, Timestamp.from(now));
+            });
+        }
+        if (!removals.isEmpty()) {
+            jdbc.batchUpdate("DELETE FROM ratings WHERE user_id = ? AND manhwa_id = ?",
+                    removals, batchSize, (ps, v) -> {
+                        ps.setLong(1, v.pk.getUserId());
+                        ps.setLong(2, v.pk.getManhwaId());
+                    });
+        }
+        aggregates.applyDeltas(deltas, changes);
+        return votes;
+    }
+
+    private static PreparedStatement arrayStatement(PreparedStatement ps, Long[] ids) throws java.sql.SQLException {
+        ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+        return ps;
+    }
+
+    // A newer vote for the same key supersedes the failed one; otherwise retry a few times
+    private void retryOrFail(List<PendingVote> batch, RuntimeException cause) {
+        lock.lock();
+        try {
+            for (PendingVote v : batch) {
+                if (v.done.isDone()) continue;
+                PendingVote newer = pending.get(v.pk);
+                if (newer != null) {
+                    newer.done.whenComplete((ok, ex) -> {
+                        if (ex == null) v.done.complete(null);
+                        else v.done.completeExceptionally(ex);
+                    });
+                } else if (++v.attempts < MAX_ATTEMPTS) {
+                    pending.put(v.pk, v);
+                } else {
+                    v.done.completeExceptionally(cause);
+                }
+            }
+            depth.set(pending.size());
+            if (!pending.isEmpty()) notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
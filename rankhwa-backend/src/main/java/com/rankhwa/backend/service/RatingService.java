@@ -1,40 +1,56 @@
 package com.rankhwa.backend.service;
 
-import com.rankhwa.backend.model.Manhwa;
 import com.rankhwa.backend.model.Rating;
 import com.rankhwa.backend.model.RatingPK;
-import com.rankhwa.backend.model.User;
 import com.rankhwa.backend.repository.ManhwaRepository;
 import com.rankhwa.backend.repository.RatingRepository;
+import com.rankhwa.backend.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class RatingService {
     private final RatingRepository ratingRepository;
     private final ManhwaRepository manhwaRepository;
+    private final UserRepository userRepository;
+    private final RatingAggregateService aggregates;
 
     @Transactional
-    public void rate(User user, Long manhwaId, int score) {
-        RatingPK pk = new RatingPK(user.getId(), manhwaId);
-        Rating r = ratingRepository.findById(pk).orElseGet(() -> {
+    public void rate(Long userId, Long manhwaId, int score) {
+        RatingPK pk = new RatingPK(userId, manhwaId);
+        Optional<Rating> existing = ratingRepository.findById(pk);
+        int oldScore = existing.map(Rating::getScore).orElse(0);
+        Instant oldTime = existing.map(Rating::getUpdatedAt).orElse(null);
+
+        Rating r = existing.orElseGet(() -> {
             Rating nr = new Rating();
             nr.setId(pk);
-            nr.setUser(user);
+            nr.setUser(userRepository.getReferenceById(userId));
             nr.setManhwa(manhwaRepository.getReferenceById(manhwaId));
             return nr;
         });
         r.setScore(score);
-        ratingRepository.save(r);
-
-        // recompute cached fields
-        Double avg = ratingRepository.computeAverage(manhwaId);
-        int votes = ratingRepository.countByManhwaId(manhwaId);
-        Manhwa m = r.getManhwa();
-        m.setAvgRating(avg);
-        m.setVoteCount(votes);
-        manhwaRepository.save(m);
+        // flushed so a first-vote recompute sees this row
+        Instant newTime = ratingRepository.saveAndFlush(r).getUpdatedAt();
+
+        aggregates.applyDelta(manhwaId, score - oldScore, existing.isPresent() ? 0 : 1,
+                new VoteChange(userId, manhwaId, oldTime, newTime));
+    }
+
+    @Transactional
+    public boolean unrate(Long userId, Long manhwaId) {
+        Optional<Rating> existing = ratingRepository.findById(new RatingPK(userId, manhwaId));
+        if (existing.isEmpty()) return false;
+
+        ratingRepository.delete(existing.get());
+        ratingRepository.flush();
+        aggregates.applyDelta(manhwaId, -existing.get().getScore(), -1,
+                new VoteChange(userId, manhwaId, existing.get().getUpdatedAt(), null));
+        return true;
     }
 }
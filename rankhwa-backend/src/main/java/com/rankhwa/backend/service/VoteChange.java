@@ -0,0 +1,6 @@
+package com.rankhwa.backend.service;
+
+import java.time.Instant;
+
+// One ratings row written or deleted: its updated_at before (null for a new vote) and after (null once deleted)
+public record VoteChange(Long userId, Long manhwaId, Instant before, Instant after) {}
@@ -0,0 +1,92 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.config.PrimaryReads;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Prior for manhwa.weighted_score, the Bayesian average (sum + m * C) / (votes + m): m is a
+ * configured number of phantom votes, C the vote-weighted mean rating over the catalog.
+ *
+ * Rating writes keep each row's score current in the same statement that applies the vote
+ * (see ManhwaRepository#applyRatingDelta), using the C held here. C itself moves slowly, so it
+ * is only re-read periodically, and only adopted once it has moved by more than tolerance:
+ * adopting it rewrites every row. A refresh otherwise rewrites just the rows whose score does
+ * not match the held C, such as rows inserted by the seeder since the last one.
+ *
+ * The adopted C is stored in weighted_score_prior, so a restart resumes with it instead of
+ * rewriting the table for a slightly different one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeightedScoreService {
+    private final ManhwaRepository manhwaRepository;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+
+    @Value("${rankhwa.ratings.weighted.prior-votes:50}")
+    private int priorVotes;
+    // used until the catalog has any votes
+    @Value("${rankhwa.ratings.weighted.default-mean:5.0}")
+    private double defaultMean;
+    @Value("${rankhwa.ratings.weighted.tolerance:0.01}")
+    private double tolerance;
+
+    private volatile double mean;
+    // whether mean is the C the table was last rewritten with
+    private volatile boolean applied;
+
+    @PostConstruct
+    void init() {
+        Double stored = PrimaryReads.call(() -> manhwaRepository.findAppliedPriorMean(priorVotes));
+        applied = stored != null;
+        mean = applied ? stored : defaultMean;
+    }
+
+    // Ahead of the index's first load, so it reads the refreshed scores
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        refresh();
+    }
+
+    public int priorVotes() {
+        return priorVotes;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    @Scheduled(fixedDelayString = "${rankhwa.ratings.weighted.refresh-ms:3600000}",
+            initialDelayString = "${rankhwa.ratings.weighted.refresh-ms:3600000}")
+    public int refresh() {
+        Double c = PrimaryReads.call(manhwaRepository::findGlobalMeanRating);
+        double read = c != null ? c : defaultMean;
+        double next = applied && Math.abs(read - mean) < tolerance ? mean : read;
+        mean = next;
+        int changed = tx.execute(status -> {
+            int rows = manhwaRepository.recomputeWeightedScores(priorVotes, next);
+            manhwaRepository.saveAppliedPrior(priorVotes, next);
+            return rows;
+        });
+        applied = true;
+        if (changed > 0) {
+            log.info("Weighted scores rewritten for {} manhwa (m={}, C={})", changed, priorVotes, next);
+            events.publishEvent(new WeightedScoresRecomputedEvent(changed));
+        }
+        return changed;
+    }
+}
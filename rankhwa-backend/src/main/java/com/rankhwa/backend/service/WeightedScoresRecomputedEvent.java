@@ -0,0 +1,4 @@
+package com.rankhwa.backend.service;
+
+// Published after a prior refresh rewrote manhwa.weighted_score outside of any rating write
+public record WeightedScoresRecomputedEvent(int rows) {}
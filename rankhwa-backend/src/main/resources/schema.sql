@@ -0,0 +1,86 @@
+-- Runs after Hibernate's ddl-auto update (spring.jpa.defer-datasource-initialization); keep it idempotent.
+
+-- Keyset pagination, in the one order the SQL and in-memory paths share (see SeekCursor): NULL
+-- dates, ratings and vote counts are COALESCEd to keys that sort them first under DESC, a NULL
+-- weighted score to its column default, ties go to the higher id, and titles compare by code point
+DROP INDEX IF EXISTS idx_manhwa_date_seek;
+DROP INDEX IF EXISTS idx_manhwa_rating_seek;
+DROP INDEX IF EXISTS idx_manhwa_title_seek;
+DROP INDEX IF EXISTS idx_manhwa_weighted_seek;
+CREATE INDEX IF NOT EXISTS idx_manhwa_rating_key
+    ON manhwa ((COALESCE(avg_rating, 'Infinity')), (COALESCE(vote_count, 2147483647)), id);
+CREATE INDEX IF NOT EXISTS idx_manhwa_date_key
+    ON manhwa ((COALESCE(release_date, DATE 'infinity')), (COALESCE(avg_rating, 'Infinity')),
+               (COALESCE(vote_count, 2147483647)), id);
+CREATE INDEX IF NOT EXISTS idx_manhwa_weighted_key
+    ON manhwa ((COALESCE(weighted_score, 0)), (COALESCE(avg_rating, 'Infinity')),
+               (COALESCE(vote_count, 2147483647)), id);
+DROP INDEX IF EXISTS idx_manhwa_title_key;
+-- lower() under "C" folds only A-Z, whatever the database locale, so Java can compute it too
+CREATE INDEX IF NOT EXISTS idx_manhwa_title_fold ON manhwa ((lower(title COLLATE "C")), id);
+
+-- The catalog mean C the weighted scores were last rewritten with (see WeightedScoreService)
+CREATE TABLE IF NOT EXISTS weighted_score_prior (
+    id          boolean PRIMARY KEY DEFAULT true CHECK (id),
+    prior_votes integer NOT NULL,
+    prior_mean  double precision NOT NULL
+);
+
+-- Trending leaderboard rebuilds read only the recent votes
+CREATE INDEX IF NOT EXISTS idx_ratings_updated_at ON ratings (updated_at);
+
+-- Catalog search matches every title variant: substring LIKE plus pg_trgm word similarity
+-- (the <% operator) for typos, both served by one trigram GIN index. Variants are newline
+-- separated so a query cannot match across two of them.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE manhwa ADD COLUMN IF NOT EXISTS search_text text GENERATED ALWAYS AS (
+    lower(title || E'\n' || COALESCE(title_english, '') || E'\n' || COALESCE(title_native, '')
+          || E'\n' || COALESCE(titles ->> 'romaji', ''))
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_manhwa_search_trgm ON manhwa USING gin (search_text gin_trgm_ops);
+-- A query is a literal substring, as in search.CatalogIndex: like_literal escapes its \, % and _
+-- for LIKE ... ESCAPE '\'. chr(92) is the backslash, which the script splitter reads as an escape.
+CREATE OR REPLACE FUNCTION like_literal(t text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+SELECT replace(replace(replace(t, chr(92), chr(92) || chr(92)), '%', chr(92) || '%'), '_', chr(92) || '_')
+$$;
+
+-- Hangul forms of the same variants for GET /manhwa and the suggest trie (mirrored by search.Hangul):
+-- hangul_jamo spells syllables as the keystrokes that type them (compound vowels and final
+-- clusters split), so input stopped mid-syllable is still a substring; blanks other than the
+-- variant separator are dropped. hangul_chosung keeps only initial consonants. Both are '' for
+-- text without Hangul.
+CREATE OR REPLACE FUNCTION hangul_jamo(t text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+SELECT CASE WHEN t !~ '[가-힣ㄱ-ㅣ]' THEN '' ELSE (
+    SELECT string_agg(CASE
+        WHEN ascii(ch) BETWEEN 44032 AND 55203 THEN
+            (ARRAY['ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'])[(ascii(ch) - 44032) / 588 + 1]
+            || (ARRAY['ㅏ', 'ㅐ', 'ㅑ', 'ㅒ', 'ㅓ', 'ㅔ', 'ㅕ', 'ㅖ', 'ㅗ', 'ㅗㅏ', 'ㅗㅐ', 'ㅗㅣ', 'ㅛ', 'ㅜ', 'ㅜㅓ', 'ㅜㅔ', 'ㅜㅣ', 'ㅠ', 'ㅡ', 'ㅡㅣ', 'ㅣ'])[(ascii(ch) - 44032) % 588 / 28 + 1]
+            || (ARRAY['', 'ㄱ', 'ㄲ', 'ㄱㅅ', 'ㄴ', 'ㄴㅈ', 'ㄴㅎ', 'ㄷ', 'ㄹ', 'ㄹㄱ', 'ㄹㅁ', 'ㄹㅂ', 'ㄹㅅ', 'ㄹㅌ', 'ㄹㅍ', 'ㄹㅎ', 'ㅁ', 'ㅂ', 'ㅂㅅ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'])[(ascii(ch) - 44032) % 28 + 1]
+        WHEN ascii(ch) BETWEEN 12593 AND 12643 THEN
+            (ARRAY['ㄱ', 'ㄲ', 'ㄱㅅ', 'ㄴ', 'ㄴㅈ', 'ㄴㅎ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㄹㄱ', 'ㄹㅁ', 'ㄹㅂ', 'ㄹㅅ', 'ㄹㅌ', 'ㄹㅍ', 'ㄹㅎ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅂㅅ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ', 'ㅏ', 'ㅐ', 'ㅑ', 'ㅒ', 'ㅓ', 'ㅔ', 'ㅕ', 'ㅖ', 'ㅗ', 'ㅗㅏ', 'ㅗㅐ', 'ㅗㅣ', 'ㅛ', 'ㅜ', 'ㅜㅓ', 'ㅜㅔ', 'ㅜㅣ', 'ㅠ', 'ㅡ', 'ㅡㅣ', 'ㅣ'])[ascii(ch) - 12592]
+        WHEN ascii(ch) IN (9, 11, 12, 13, 32) THEN ''
+        ELSE ch END, '' ORDER BY i)
+    FROM regexp_split_to_table(t, '') WITH ORDINALITY AS c(ch, i)) END
+$$;
+CREATE OR REPLACE FUNCTION hangul_chosung(t text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+SELECT CASE WHEN t !~ '[가-힣ㄱ-ㅎ]' THEN '' ELSE (
+    SELECT string_agg(CASE
+        WHEN ascii(ch) BETWEEN 44032 AND 55203 THEN
+            (ARRAY['ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'])[(ascii(ch) - 44032) / 588 + 1]
+        WHEN ascii(ch) BETWEEN 12593 AND 12622 OR ch = E'\n' THEN ch
+        ELSE '' END, '' ORDER BY i)
+    FROM regexp_split_to_table(t, '') WITH ORDINALITY AS c(ch, i)) END
+$$;
+ALTER TABLE manhwa ADD COLUMN IF NOT EXISTS search_jamo text GENERATED ALWAYS AS (
+    hangul_jamo(lower(title || E'\n' || COALESCE(title_english, '') || E'\n' || COALESCE(title_native, '')
+                      || E'\n' || COALESCE(titles ->> 'romaji', '')))
+) STORED;
+ALTER TABLE manhwa ADD COLUMN IF NOT EXISTS search_chosung text GENERATED ALWAYS AS (
+    hangul_chosung(title || E'\n' || COALESCE(title_english, '') || E'\n' || COALESCE(title_native, '')
+                   || E'\n' || COALESCE(titles ->> 'romaji', ''))
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_manhwa_search_jamo_trgm ON manhwa USING gin (search_jamo gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_manhwa_search_chosung_trgm ON manhwa USING gin (search_chosung gin_trgm_ops);
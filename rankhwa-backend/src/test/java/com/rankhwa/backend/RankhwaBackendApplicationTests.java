@@ -1,9 +1,12 @@
 package com.rankhwa.backend;
 
+import com.rankhwa.backend.support.TestDatabase;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
 
 @SpringBootTest
+@ContextConfiguration(initializers = TestDatabase.class)
 class RankhwaBackendApplicationTests {
 
 	@Test
@@ -0,0 +1,80 @@
+package com.rankhwa.backend.config;
+
+import com.rankhwa.backend.search.CatalogCache;
+import com.rankhwa.backend.search.CatalogIndex;
+import com.rankhwa.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Which pool read-only transactions outside a request run on. The "replica" is the test database
+// seen through a schema whose manhwa table is empty, so a read that went there misses new rows
+// Not a web environment: the mock request of one would count as a write
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"rankhwa.datasource.replica.url=${spring.datasource.url}",
+		"rankhwa.datasource.replica.hikari.connection-init-sql=SET search_path TO lagging, public"})
+@ContextConfiguration(initializers = TestDatabase.class)
+class ReplicaRoutingTest {
+	static final String TITLE = "zqreplica routing";
+
+	@Autowired JdbcTemplate jdbc;
+	@Autowired PlatformTransactionManager transactions;
+	@Autowired CatalogIndex catalogIndex;
+	@Autowired CatalogCache catalogCache;
+
+	TransactionTemplate readOnly;
+	long id;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.execute("CREATE SCHEMA IF NOT EXISTS lagging");
+		jdbc.execute("CREATE TABLE IF NOT EXISTS lagging.manhwa (LIKE public.manhwa INCLUDING ALL)");
+		id = jdbc.queryForObject("""
+				INSERT INTO manhwa (title, avg_rating, vote_count, weighted_score, genres)
+				VALUES (?, 8.0, 10, 7.0, CAST('[]' AS jsonb)) RETURNING id
+				""", Long.class, TITLE);
+		readOnly = new TransactionTemplate(transactions);
+		readOnly.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbc.execute("DROP SCHEMA lagging CASCADE");
+		jdbc.update("DELETE FROM manhwa WHERE title = ?", TITLE);
+	}
+
+	@Test
+	void readOnlyTransactionsGoToTheReplicaOutsideAPrimaryScope() {
+		assertThat(countOnReadOnly()).isZero();
+		assertThat(PrimaryReads.call(this::countOnReadOnly)).isEqualTo(1);
+		// writes always run on the primary
+		assertThat(jdbc.queryForObject("SELECT count(*) FROM manhwa WHERE title = ?", Long.class, TITLE))
+				.isEqualTo(1);
+	}
+
+	@Test
+	void indexReloadsReadThePrimary() {
+		catalogIndex.reload();
+		assertThat(catalogIndex.summaries(List.of(id))).containsKey(id);
+	}
+
+	@Test
+	void cacheLoadsReadThePrimary() {
+		assertThat(catalogCache.detail(id)).isPresent();
+	}
+
+	long countOnReadOnly() {
+		return readOnly.execute(status ->
+				jdbc.queryForObject("SELECT count(*) FROM manhwa WHERE title = ?", Long.class, TITLE));
+	}
+}
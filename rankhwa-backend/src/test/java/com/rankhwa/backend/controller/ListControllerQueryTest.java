@@ -0,0 +1,146 @@
+package com.rankhwa.backend.controller;
+
+import com.rankhwa.backend.config.QueryCounter;
+import com.rankhwa.backend.model.ListEntity;
+import com.rankhwa.backend.model.User;
+import com.rankhwa.backend.repository.ListRepository;
+import com.rankhwa.backend.repository.UserRepository;
+import com.rankhwa.backend.security.JwtUtil;
+import com.rankhwa.backend.service.ListService;
+import com.rankhwa.backend.support.MaxQueries;
+import com.rankhwa.backend.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statement counts of the list reads must stay within the handlers' @QueryBudget (which
+// action=fail also enforces per request) and not grow with the number of lists or items
+@SpringBootTest(properties = "rankhwa.query-budget.action=fail")
+@ContextConfiguration(initializers = TestDatabase.class)
+@AutoConfigureMockMvc
+@Import(MaxQueries.Handlers.class)
+class ListControllerQueryTest {
+	// every fixture title carries it
+	static final String TAG = "zqlistbudget";
+	static final int N = 5;
+
+	@Autowired MockMvc mvc;
+	@Autowired JwtUtil jwt;
+	@Autowired ListService listService;
+	@Autowired UserRepository users;
+	@Autowired ListRepository lists;
+	@Autowired JdbcTemplate jdbc;
+
+	User user;
+	String token;
+	Long listId;
+	// not in the catalog index, which loaded before them, so expand reads their summaries
+	List<Long> manhwa = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setEmail("query-budget-" + UUID.randomUUID() + "@test.local");
+		user.setDisplayName("query budget");
+		user.setPasswordHash("-");
+		user = users.save(user);
+		listService.createDefaultListsFor(user);
+		token = "Bearer " + jwt.generateToken(user.getId(), user.getEmail(), user.getTokenVersion());
+
+		for (int i = 0; i < 2 * N; i++) {
+			manhwa.add(jdbc.queryForObject("""
+					INSERT INTO manhwa (title, avg_rating, vote_count, genres)
+					VALUES (?, 8.0, 10, CAST('[]' AS jsonb)) RETURNING id
+					""", Long.class, TAG + " " + i));
+		}
+		listId = lists.findByUserId(user.getId()).get(0).getId();
+		listService.addItems(user.getId(), listId, manhwa.subList(0, N));
+	}
+
+	@AfterEach
+	void tearDown() {
+		List<ListEntity> own = lists.findByUserId(user.getId());
+		lists.deleteAll(own);
+		users.delete(user);
+		jdbc.update("DELETE FROM manhwa WHERE title LIKE ?", TAG + " %");
+	}
+
+	@Test
+	@MaxQueries
+	void myListsIsWithinItsBudget() throws Exception {
+		mvc.perform(get("/lists").header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(4));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"", "manhwa"})
+	@MaxQueries
+	void listDetailIsWithinItsBudget(String expand) throws Exception {
+		mvc.perform(get("/lists/{id}", listId).param("expand", expand).header("Authorization", token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.manhwaIds.length()").value(N));
+	}
+
+	@Test
+	void myListsDoesNotGrowWithListsOrItems() throws Exception {
+		addLists(0, N);
+		int small = statements(() -> get("/lists"), jsonPath("$.length()").value(4 + N));
+
+		addLists(N, 2 * N);
+		int large = statements(() -> get("/lists"), jsonPath("$.length()").value(4 + 2 * N));
+
+		assertThat(large).isEqualTo(small);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"", "manhwa"})
+	void listDetailDoesNotGrowWithItems(String expand) throws Exception {
+		int small = statements(() -> get("/lists/{id}", listId).param("expand", expand),
+				jsonPath("$.manhwaIds.length()").value(N));
+
+		listService.addItems(user.getId(), listId, manhwa);
+		int large = statements(() -> get("/lists/{id}", listId).param("expand", expand),
+				expand.isEmpty() ? jsonPath("$.items").doesNotExist() : jsonPath("$.items.length()").value(2 * N));
+
+		assertThat(large).isEqualTo(small);
+	}
+
+	// Lists number from to to (exclusive), list i holding the first i + 1 fixture rows
+	void addLists(int from, int to) {
+		for (int i = from; i < to; i++) {
+			Long listId = listService.addList(user.getId(), TAG + " " + i).id();
+			listService.addItems(user.getId(), listId, manhwa.subList(0, i + 1));
+		}
+	}
+
+	// Statements of the second of two identical requests, so authentication caches are warm
+	int statements(Supplier<MockHttpServletRequestBuilder> request, ResultMatcher body) throws Exception {
+		mvc.perform(request.get().header("Authorization", token)).andExpect(status().isOk());
+		try (QueryCounter counter = QueryCounter.start()) {
+			mvc.perform(request.get().header("Authorization", token)).andExpect(status().isOk()).andExpect(body);
+			return counter.count();
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.rankhwa.backend.search;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.service.ManhwaMapper;
+import com.rankhwa.backend.service.RatingAggregate;
+import com.rankhwa.backend.service.RatingAggregatesChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Which cached pages a write reloads, and when
+class CatalogCacheTest {
+
+	static final SearchCriteria BY_RATING = SearchCriteria.of("", null, null, null, null, "rating", 0, 2);
+	static final SearchCriteria BY_TITLE = SearchCriteria.of("", null, null, null, null, "title", 0, 2);
+
+	ManhwaSearchService searchService = mock(ManhwaSearchService.class);
+	CatalogIndex index = mock(CatalogIndex.class);
+	// loads run when the test says so
+	Queue<Runnable> loads = new ArrayDeque<>();
+	CatalogCache cache;
+	// a rating that commits while the next load is reading
+	boolean writeDuringLoad;
+
+	@BeforeEach
+	void setUp() {
+		when(searchService.search(any())).thenAnswer(invocation -> {
+			if (writeDuringLoad) {
+				writeDuringLoad = false;
+				cache.onAggregatesChanged(rated(2L));
+			}
+			return List.of(summary(1), summary(2));
+		});
+		when(index.mayMatch(anyLong(), any())).thenReturn(true);
+		cache = new CatalogCache(searchService, mock(ManhwaRepository.class), index, new ManhwaMapper(),
+				new SimpleMeterRegistry(), loads::add);
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "maxPages", 100L);
+		ReflectionTestUtils.setField(cache, "maxDetails", 100L);
+		ReflectionTestUtils.setField(cache, "refreshMs", 60_000L);
+		ReflectionTestUtils.setField(cache, "ttlMs", 600_000L);
+		ReflectionTestUtils.invokeMethod(cache, "init");
+	}
+
+	@Test
+	void writesReloadListedPagesOnTheNextFlushOnly() {
+		load(BY_TITLE);
+		load(BY_RATING);
+
+		cache.onAggregatesChanged(rated(2L));
+		cache.onAggregatesChanged(rated(1L));
+		runLoads();
+		verify(searchService, times(1)).search(BY_TITLE.normalized());
+
+		cache.flushInvalidations();
+		runLoads();
+		// both writes, one reload per page
+		verify(searchService, times(2)).search(BY_TITLE.normalized());
+		verify(searchService, times(2)).search(BY_RATING.normalized());
+
+		cache.flushInvalidations();
+		runLoads();
+		verify(searchService, times(2)).search(BY_TITLE.normalized());
+	}
+
+	@Test
+	void unlistedRowsReloadOnlyPagesTheyCouldMoveInto() {
+		load(BY_TITLE);
+		load(BY_RATING);
+
+		cache.onAggregatesChanged(rated(9L));
+		cache.flushInvalidations();
+		runLoads();
+		// ratings do not move rows in the title order
+		verify(searchService, times(1)).search(BY_TITLE.normalized());
+		verify(searchService, times(2)).search(BY_RATING.normalized());
+	}
+
+	@Test
+	void seederChangesReloadPagesOfEveryOrder() {
+		load(BY_TITLE);
+
+		cache.onCatalogReloaded(new CatalogReloadedEvent(Set.of(9L)));
+		cache.flushInvalidations();
+		runLoads();
+		verify(searchService, times(2)).search(BY_TITLE.normalized());
+	}
+
+	@Test
+	void aLoadStartedBeforeTheWriteIsReloadedAgain() {
+		load(BY_RATING);
+		cache.onAggregatesChanged(rated(1L));
+		cache.flushInvalidations();
+
+		// the reload may have read the old values of the second write
+		writeDuringLoad = true;
+		runLoads();
+		verify(searchService, times(2)).search(BY_RATING.normalized());
+
+		cache.flushInvalidations();
+		runLoads();
+		verify(searchService, times(3)).search(BY_RATING.normalized());
+
+		cache.flushInvalidations();
+		runLoads();
+		verify(searchService, times(3)).search(BY_RATING.normalized());
+	}
+
+	@Test
+	void pagesAreServedWhileTheyReload() {
+		load(BY_RATING);
+		cache.onAggregatesChanged(rated(1L));
+		cache.flushInvalidations();
+
+		assertThat(cache.search(BY_RATING).body()).hasSize(2);
+		verify(searchService, times(1)).search(BY_RATING.normalized());
+	}
+
+	@Test
+	void writesDoNotTouchPagesOnTheCommittingThread() {
+		load(BY_RATING);
+		cache.onAggregatesChanged(rated(1L));
+		runLoads();
+		verify(index, never()).mayMatch(anyLong(), any());
+	}
+
+	void load(SearchCriteria c) {
+		@SuppressWarnings("unchecked")
+		var pages = (AsyncLoadingCache<SearchCriteria, Versioned<List<ManhwaSummary>>>)
+				ReflectionTestUtils.getField(cache, "pages");
+		var page = pages.get(c.normalized());
+		runLoads();
+		assertThat(page.join().body()).isNotEmpty();
+	}
+
+	void runLoads() {
+		while (!loads.isEmpty()) loads.poll().run();
+	}
+
+	static RatingAggregatesChangedEvent rated(long id) {
+		return new RatingAggregatesChangedEvent(List.of(new RatingAggregate(id, 8.0, 10, 7.5, 2L, Instant.now())));
+	}
+
+	static ManhwaSummary summary(long id) {
+		return new ManhwaSummary(id, "t" + id, null, 8.0, 10, null, null, null, List.of(), null, null, null);
+	}
+}
@@ -0,0 +1,141 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.dto.ManhwaPage;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.service.ManhwaMapper;
+import com.rankhwa.backend.service.RatingAggregate;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Filters, counts and rating writes of the in-memory index, against what advancedSearch answers
+class CatalogIndexTest {
+
+	static final List<CatalogRow> ROWS = List.of(
+			CatalogRow.of(1, "Solo Leveling", 9.1, 120).genres("Action", "Fantasy").released(LocalDate.of(2018, 3, 4)),
+			CatalogRow.of(2, "Tower of God", 8.7, 300).genres("Action", "Drama").released(LocalDate.of(2010, 6, 30)),
+			CatalogRow.of(3, "Omniscient Reader", 9.1, 80).genres("Fantasy").released(LocalDate.of(2020, 5, 1)),
+			CatalogRow.of(4, "Unrated", null, null).genres("Romance"),
+			CatalogRow.of(5, "나 혼자만 레벨업", 7.5, 10).english("Only I Level Up").genres("Action", "Romance")
+					.released(LocalDate.of(2018, 1, 1)),
+			CatalogRow.of(6, "The Boxer", 8.7, 300).genres("Drama", "Sports").released(LocalDate.of(2019, 12, 5)));
+
+	static CatalogIndex index(List<CatalogRow> rows) {
+		ManhwaRepository repository = mock(ManhwaRepository.class);
+		when(repository.findAllSummaryRows()).thenReturn(new ArrayList<>(rows));
+		CatalogIndex index = new CatalogIndex(repository, new ManhwaMapper(), mock(ApplicationEventPublisher.class));
+		ReflectionTestUtils.setField(index, "enabled", true);
+		index.reload();
+		return index;
+	}
+
+	static SearchCriteria criteria(String q, Double minRating, Integer minVotes, Integer year, String genres,
+								   String sort, int size) {
+		return SearchCriteria.of(q, minRating, minVotes, year, genres, sort, 0, size);
+	}
+
+	static List<Long> ids(List<ManhwaSummary> page) {
+		return page.stream().map(ManhwaSummary::id).toList();
+	}
+
+	@Test
+	void holdsEveryRowOnceLoaded() {
+		CatalogIndex index = index(ROWS);
+		assertThat(index.isReady()).isTrue();
+		assertThat(index.size()).isEqualTo(ROWS.size());
+		assertThat(index.count(criteria("", null, null, null, null, "rating", 20))).isEqualTo(ROWS.size());
+	}
+
+	@Test
+	void thresholdsNeverMatchNullRatingsOrVotes() {
+		CatalogIndex index = index(ROWS);
+		// SQL: NULL >= x is not true
+		assertThat(ids(index.search(criteria("", 0.0, null, null, null, "rating", 20)))).doesNotContain(4L);
+		assertThat(ids(index.search(criteria("", null, 0, null, null, "rating", 20)))).doesNotContain(4L);
+		assertThat(index.count(criteria("", 9.0, 100, null, null, "rating", 20))).isEqualTo(1);
+	}
+
+	@Test
+	void genresMatchAnyOfThemAndCombineWithTheOtherFilters() {
+		CatalogIndex index = index(ROWS);
+		assertThat(ids(index.search(criteria("", null, null, null, "Romance,Sports", "rating", 20))))
+				.containsExactlyInAnyOrder(4L, 5L, 6L);
+		assertThat(ids(index.search(criteria("", null, null, 2018, "Action", "rating", 20))))
+				.containsExactlyInAnyOrder(1L, 5L);
+		assertThat(index.count(criteria("", 8.0, null, 2018, "Action", "rating", 20))).isEqualTo(1);
+		assertThat(index.count(criteria("", null, null, null, "Horror", "rating", 20))).isZero();
+	}
+
+	@Test
+	void queryMatchesAnyTitleVariantAsSubstringOrJamo() {
+		CatalogIndex index = index(ROWS);
+		assertThat(ids(index.search(criteria("LEVEL", null, null, null, null, "rating", 20))))
+				.containsExactlyInAnyOrder(1L, 5L);
+		assertThat(ids(index.search(criteria("레벨", null, null, null, null, "rating", 20)))).containsExactly(5L);
+		// typed mid-syllable
+		assertThat(ids(index.search(criteria("혼잠", null, null, null, null, "rating", 20)))).containsExactly(5L);
+		assertThat(ids(index.search(criteria("ㄴㅎㅈ", null, null, null, null, "rating", 20)))).containsExactly(5L);
+		assertThat(index.count(criteria("no such title", null, null, null, null, "rating", 20))).isZero();
+	}
+
+	@Test
+	void offsetPagesAndCursorPagesServeTheSameRows() {
+		CatalogIndex index = index(ROWS);
+		for (String sort : List.of("rating", "date", "title", "weighted")) {
+			List<Long> all = ids(index.search(criteria("", null, null, null, null, sort, 20)));
+
+			List<Long> offset = new ArrayList<>();
+			for (int page = 0; page < 3; page++) {
+				offset.addAll(ids(index.search(SearchCriteria.of("", null, null, null, null, sort, page, 2))));
+			}
+			List<Long> seek = new ArrayList<>();
+			SeekCursor after = null;
+			do {
+				ManhwaPage page = index.seek(criteria("", null, null, null, null, sort, 2), after);
+				seek.addAll(ids(page.items()));
+				after = page.nextCursor() == null ? null : SeekCursor.decode(page.nextCursor(), sort);
+			} while (after != null);
+
+			assertThat(offset).as(sort).isEqualTo(all);
+			assertThat(seek).as(sort).isEqualTo(all);
+		}
+	}
+
+	@Test
+	void ratingWritesUpdateSummariesAndRepositionRows() {
+		CatalogIndex index = index(ROWS);
+		index.apply(List.of(new RatingAggregate(2L, 9.5, 301, 9.4, 2L, Instant.now())));
+
+		List<ManhwaSummary> byRating = index.search(criteria("", null, null, null, null, "rating", 20));
+		assertThat(byRating.get(1).id()).isEqualTo(2L);
+		assertThat(byRating.get(1).avgRating()).isEqualTo(9.5);
+		assertThat(byRating.get(1).voteCount()).isEqualTo(301);
+		assertThat(index.count(criteria("", 9.2, null, null, null, "rating", 20))).isEqualTo(1);
+		assertThat(ids(index.search(criteria("", null, null, null, null, "weighted", 1)))).containsExactly(2L);
+		assertThat(index.version(2L).version()).isEqualTo(2L);
+
+		// unknown ids wait for the next reload
+		index.apply(List.of(new RatingAggregate(99L, 1.0, 1, 1.0, 1L, Instant.now())));
+		assertThat(index.size()).isEqualTo(ROWS.size());
+	}
+
+	@Test
+	void mayMatchRulesOutOnlyOnTitlesYearAndGenres() {
+		CatalogIndex index = index(ROWS);
+		assertThat(index.mayMatch(1L, criteria("solo", 9.9, 1000, null, null, "rating", 20))).isTrue();
+		assertThat(index.mayMatch(1L, criteria("boxer", null, null, null, null, "rating", 20))).isFalse();
+		assertThat(index.mayMatch(1L, criteria("", null, null, 2019, null, "rating", 20))).isFalse();
+		assertThat(index.mayMatch(1L, criteria("", null, null, null, "Drama", "rating", 20))).isFalse();
+		assertThat(index.mayMatch(99L, criteria("boxer", null, null, null, null, "rating", 20))).isTrue();
+	}
+}
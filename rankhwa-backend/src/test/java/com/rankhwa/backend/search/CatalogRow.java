@@ -0,0 +1,58 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.repository.ManhwaSummaryRow;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Locale;
+
+// A manhwa row as findAllSummaryRows returns it, for index fixtures
+record CatalogRow(Long id, String title, String titleEnglish, Double avgRating, Integer voteCount,
+				  Double weightedScore, LocalDate releaseDate, String genres) implements ManhwaSummaryRow {
+
+	static CatalogRow of(long id, String title, Double rating, Integer votes) {
+		return new CatalogRow(id, title, null, rating, votes, 0.0, null, "[]");
+	}
+
+	CatalogRow english(String t) {
+		return new CatalogRow(id, title, t, avgRating, voteCount, weightedScore, releaseDate, genres);
+	}
+
+	CatalogRow weighted(double w) {
+		return new CatalogRow(id, title, titleEnglish, avgRating, voteCount, w, releaseDate, genres);
+	}
+
+	CatalogRow released(LocalDate d) {
+		return new CatalogRow(id, title, titleEnglish, avgRating, voteCount, weightedScore, d, genres);
+	}
+
+	CatalogRow genres(String... g) {
+		return new CatalogRow(id, title, titleEnglish, avgRating, voteCount, weightedScore, releaseDate,
+				"[\"" + String.join("\",\"", g) + "\"]");
+	}
+
+	@Override public Long getId() { return id; }
+	@Override public String getTitle() { return title; }
+	@Override public String getAuthor() { return null; }
+	@Override public Double getAvgRating() { return avgRating; }
+	@Override public Double getWeightedScore() { return weightedScore; }
+	@Override public Integer getVoteCount() { return voteCount; }
+	@Override public String getCoverUrl() { return null; }
+	@Override public String getBannerUrl() { return null; }
+	@Override public Integer getChapters() { return null; }
+	@Override public LocalDate getReleaseDate() { return releaseDate; }
+	@Override public String getGenres() { return genres; }
+	@Override public String getTitles() { return null; }
+	@Override public String getTitleEnglish() { return titleEnglish; }
+	@Override public String getTitleNative() { return null; }
+	@Override public Long getRowVersion() { return 1L; }
+	@Override public Instant getUpdatedAt() { return null; }
+
+	// as the generated column spells it
+	@Override public String getSearchText() {
+		return (title + "\n" + (titleEnglish == null ? "" : titleEnglish) + "\n\n").toLowerCase(Locale.ROOT);
+	}
+
+	@Override public String getSearchJamo() { return Hangul.jamo(getSearchText()); }
+	@Override public String getSearchChosung() { return Hangul.chosung(getSearchText()); }
+}
@@ -0,0 +1,55 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Hangul must spell text exactly as schema.sql's hangul_jamo and hangul_chosung do: the index
+// matches queries spelled by one against columns generated by the other
+@SpringBootTest
+@ContextConfiguration(initializers = TestDatabase.class)
+class HangulParityTest {
+
+	@Autowired JdbcTemplate jdbc;
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"가", "힣", "각힣가", "닭", "읽", "괜찮아", "뷁", "의", "왜", "워",
+			"나 혼자만 레벨업", "전지적\t독자\r\n시점", "혼잠",
+			"ㄱ", "ㅣ", "ㄳㄵㄶㄺㄻㄼㄽㄾㄿㅀㅄ", "ㅘㅙㅚㅝㅞㅟㅢ", "ㄴㅎㅈ", "ㅋㅋㅋ", "ㅏㅓ",
+			"Solo Leveling 2", "solo 레벨업 2", "Lv.99 히어로!", "A나b다C", "레벨업\nsolo leveling\n\n",
+			"no hangul here", "12345", "", "   ", "\n",
+			"㄰ㅤᄀᆨ가힣힤꯿"})
+	void spellsLikeTheSqlFunctions(String text) {
+		assertThat(Hangul.jamo(text)).as("jamo").isEqualTo(sql("hangul_jamo", text));
+		assertThat(Hangul.chosung(text)).as("chosung").isEqualTo(sql("hangul_chosung", text));
+	}
+
+	@Test
+	void everySyllableAndCompatibilityJamo() {
+		String syllables = range(0xAC00, 0xD7A3);
+		String jamo = range(0x3130, 0x3164);
+		for (String text : new String[]{syllables, jamo, "x" + syllables + " 1 " + jamo}) {
+			assertThat(Hangul.jamo(text)).isEqualTo(sql("hangul_jamo", text));
+			assertThat(Hangul.chosung(text)).isEqualTo(sql("hangul_chosung", text));
+		}
+	}
+
+	String sql(String function, String text) {
+		return jdbc.queryForObject("SELECT " + function + "(?)", String.class, text);
+	}
+
+	static String range(int first, int last) {
+		return IntStream.rangeClosed(first, last).mapToObj(Character::toString).collect(Collectors.joining());
+	}
+}
@@ -0,0 +1,160 @@
+package com.rankhwa.backend.search;
+
+import com.rankhwa.backend.dto.ManhwaPage;
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ManhwaRepository;
+import com.rankhwa.backend.service.ManhwaMapper;
+import com.rankhwa.backend.support.TestDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pages of the SQL fallback and of the in-memory index must be one sequence, so a cursor or page
+// number issued by either can be resumed by the other
+@SpringBootTest
+@ContextConfiguration(initializers = TestDatabase.class)
+class SeekOrderParityTest {
+	// every fixture title carries it, so searching for it selects just the fixture
+	static final String TAG = "zqparity";
+
+	@Autowired JdbcTemplate jdbc;
+	@Autowired ManhwaRepository repository;
+	@Autowired ManhwaMapper mapper;
+	@Autowired ApplicationEventPublisher events;
+
+	ManhwaSearchService sql;
+	ManhwaSearchService memory;
+	int expected;
+
+	@BeforeEach
+	void setUp() {
+		insert("Alpha " + TAG, 9.0, 100, 9.0, LocalDate.of(2020, 1, 1));
+		insert("alpha " + TAG, 9.0, 100, 9.0, LocalDate.of(2020, 1, 1));   // ties Alpha on every key but id
+		insert("Alpha " + TAG, 9.0, 100, 9.0, null);
+		insert("Beta " + TAG, null, null, 0.0, LocalDate.of(2019, 5, 5));   // never rated
+		insert("beta " + TAG, null, 40, 0.0, null);
+		insert("Delta " + TAG, null, 40, 0.0, null);                        // ties beta on every key but id
+		insert("Gamma " + TAG, 7.5, null, 0.0, LocalDate.of(2021, 2, 2));
+		insert("Ärger " + TAG, 8.0, 10, 8.0, LocalDate.of(2020, 1, 1));
+		insert("나 혼자만 " + TAG, 8.0, 10, 8.0, LocalDate.of(2018, 3, 3));
+		insert("Zeta " + TAG, 8.0, 10, 8.0, LocalDate.of(2018, 3, 3));
+		insert("Eta " + TAG, 0.0, 0, 0.0, LocalDate.of(2022, 4, 4));
+		insert("Theta " + TAG, 10.0, 1, 0.0, LocalDate.of(2022, 4, 4));
+		expected = 12;
+
+		CatalogIndex notLoaded = new CatalogIndex(repository, mapper, events);
+		sql = service(notLoaded);
+
+		CatalogIndex loaded = new CatalogIndex(repository, mapper, events);
+		ReflectionTestUtils.setField(loaded, "enabled", true);
+		loaded.reload();
+		memory = service(loaded);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbc.update("DELETE FROM manhwa WHERE title LIKE ?", "%" + TAG);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"rating", "date", "title", "weighted"})
+	void cursorPagesAgreeAcrossPaths(String sort) {
+		List<Long> bySql = seekAll(sort, sql, sql);
+		List<Long> byIndex = seekAll(sort, memory, memory);
+
+		assertThat(bySql).hasSize(expected).doesNotHaveDuplicates();
+		assertThat(byIndex).isEqualTo(bySql);
+		assertThat(seekAll(sort, memory, sql)).isEqualTo(bySql);
+		assertThat(seekAll(sort, sql, memory)).isEqualTo(bySql);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"rating", "date", "title", "weighted", "relevance"})
+	void offsetPagesAgreeAcrossPaths(String sort) {
+		List<Long> bySql = new ArrayList<>();
+		List<Long> byIndex = new ArrayList<>();
+		for (int page = 0; page * 3 < expected; page++) {
+			SearchCriteria c = SearchCriteria.of(TAG, null, null, null, null, sort, page, 3);
+			bySql.addAll(ids(sql.search(c)));
+			byIndex.addAll(ids(memory.search(c)));
+		}
+		assertThat(bySql).hasSize(expected).doesNotHaveDuplicates();
+		assertThat(byIndex).isEqualTo(bySql);
+	}
+
+	@Test
+	void titlesSortWithAsciiCaseFolded() {
+		SearchCriteria c = SearchCriteria.of(TAG, null, null, null, null, "title", 0, expected);
+		List<String> expectedTitles = List.of("Alpha", "alpha", "Alpha", "Beta", "beta", "Delta", "Eta", "Gamma",
+				"Theta", "Zeta", "Ärger", "나 혼자만").stream().map(t -> t + " " + TAG).toList();
+		assertThat(sql.search(c).stream().map(ManhwaSummary::title).toList()).isEqualTo(expectedTitles);
+		assertThat(memory.search(c).stream().map(ManhwaSummary::title).toList()).isEqualTo(expectedTitles);
+	}
+
+	// No trigrams in these queries, so only a literal substring match can select a row
+	@ParameterizedTest
+	@ValueSource(strings = {"%", "_", "\\"})
+	void wildcardsInTheQueryMatchLiterally(String q) {
+		insert("100% " + TAG, 8.0, 10, 8.0, null);
+		insert("a_b " + TAG, 8.0, 10, 8.0, null);
+		insert("c\\d " + TAG, 8.0, 10, 8.0, null);
+		CatalogIndex loaded = new CatalogIndex(repository, mapper, events);
+		ReflectionTestUtils.setField(loaded, "enabled", true);
+		loaded.reload();
+		memory = service(loaded);
+
+		SearchCriteria c = SearchCriteria.of(q, null, null, null, null, "title", 0, 100);
+		List<String> bySql = sql.search(c).stream().map(ManhwaSummary::title).toList();
+		assertThat(bySql).allMatch(t -> t.contains(q)).anyMatch(t -> t.endsWith(TAG));
+		assertThat(memory.search(c).stream().map(ManhwaSummary::title).toList()).isEqualTo(bySql);
+	}
+
+	// Pages of two, alternating between the two services
+	List<Long> seekAll(String sort, ManhwaSearchService first, ManhwaSearchService second) {
+		List<Long> out = new ArrayList<>();
+		String cursor = "";
+		for (int i = 0; i <= expected; i++) {
+			ManhwaPage page = (i % 2 == 0 ? first : second)
+					.seek(SearchCriteria.of(TAG, null, null, null, null, sort, 0, 2), cursor);
+			out.addAll(ids(page.items()));
+			if (page.nextCursor() == null) return out;
+			cursor = page.nextCursor();
+		}
+		throw new AssertionError("cursor paging did not end");
+	}
+
+	ManhwaSearchService service(CatalogIndex index) {
+		ManhwaSearchService s = new ManhwaSearchService(index, repository, mapper, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(s, "countCacheTtlMs", 1000L);
+		ReflectionTestUtils.setField(s, "countCacheMaxSize", 10L);
+		s.init();
+		return s;
+	}
+
+	void insert(String title, Double rating, Integer votes, double weighted, LocalDate released) {
+		jdbc.update("""
+				INSERT INTO manhwa (title, avg_rating, vote_count, weighted_score, release_date, genres)
+				VALUES (?, ?, ?, ?, ?, CAST('[]' AS jsonb))
+				""", title, rating, votes, weighted, released == null ? null : Date.valueOf(released));
+	}
+
+	static List<Long> ids(List<ManhwaSummary> page) {
+		return page.stream().map(ManhwaSummary::id).toList();
+	}
+}
@@ -0,0 +1,110 @@
+package com.rankhwa.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Completions, edge splits and folds, and the size the trie reports while it changes
+class SuggestTrieTest {
+
+	final Map<Long, Long> weights = new HashMap<>();
+
+	SuggestTrie trie(int topN) {
+		return new SuggestTrie(topN, id -> weights.getOrDefault(id, 0L));
+	}
+
+	@Test
+	void completesEveryKeyUnderThePrefix() {
+		SuggestTrie trie = trie(10);
+		trie.add("solo leveling", 1);
+		trie.add("sonic", 2);
+		trie.add("tower of god", 3);
+
+		assertThat(trie.complete("so")).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(trie.complete("sol")).containsExactly(1L);
+		// a prefix ending inside an edge
+		assertThat(trie.complete("solo lev")).containsExactly(1L);
+		assertThat(trie.complete("")).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(trie.complete("solx")).isEmpty();
+		assertThat(trie.complete("solo leveling 2")).isEmpty();
+	}
+
+	@Test
+	void insertsSplitEdgesAndRemovesFoldThemBack() {
+		SuggestTrie trie = trie(10);
+		trie.add("solo", 1);
+		assertThat(trie.nodeCount()).isEqualTo(2);
+
+		// "so" becomes its own node above "lo" and "ng"
+		trie.add("song", 2);
+		assertThat(trie.nodeCount()).isEqualTo(4);
+		// a key ending on the split point
+		trie.add("so", 3);
+		assertThat(trie.nodeCount()).isEqualTo(4);
+		assertThat(trie.complete("so")).containsExactlyInAnyOrder(1L, 2L, 3L);
+
+		trie.remove("so", 3);
+		trie.remove("song", 2);
+		assertThat(trie.nodeCount()).isEqualTo(2);
+		assertThat(trie.complete("son")).isEmpty();
+		assertThat(trie.complete("so")).containsExactly(1L);
+
+		trie.remove("solo", 1);
+		trie.remove("solo", 1);
+		trie.remove("absent", 1);
+		assertThat(trie.nodeCount()).isEqualTo(1);
+		assertThat(trie.complete("")).isEmpty();
+	}
+
+	@Test
+	void keepsTheBestTopNByWeightThenId() {
+		weights.putAll(Map.of(1L, 5L, 2L, 9L, 3L, 5L, 4L, 1L));
+		SuggestTrie trie = trie(3);
+		trie.add("alpha", 4);
+		trie.add("alpine", 3);
+		trie.add("altar", 1);
+		trie.add("also", 2);
+		// one id under two keys counts once
+		trie.add("al", 2);
+
+		assertThat(trie.complete("al")).containsExactly(2L, 1L, 3L);
+		assertThat(trie.complete("alp")).containsExactly(3L, 4L);
+
+		weights.put(4L, 20L);
+		trie.reweight("alpha");
+		assertThat(trie.complete("al")).containsExactly(4L, 2L, 1L);
+		assertThat(trie.complete("alp")).containsExactly(4L, 3L);
+	}
+
+	@Test
+	void bulkLoadsRankOnceRecomputed() {
+		weights.putAll(Map.of(1L, 1L, 2L, 2L));
+		SuggestTrie trie = trie(10);
+		trie.addWithoutRanking("ab", 1);
+		trie.addWithoutRanking("abc", 2);
+		trie.recomputeAll();
+		assertThat(trie.complete("a")).containsExactly(2L, 1L);
+	}
+
+	@Test
+	void reportedSizeMatchesATrieBuiltFromTheRemainingKeys() {
+		List<String> keys = List.of("solo leveling", "solo", "sonic", "song", "so", "tower of god", "tower",
+				"나 혼자만", "ㄴㅎㅈ", "the boxer", "the god of high school", "the");
+		SuggestTrie trie = trie(2);
+		for (int i = 0; i < keys.size(); i++) trie.add(keys.get(i), i);
+		for (int i = 0; i < keys.size(); i += 3) trie.remove(keys.get(i), i);
+
+		SuggestTrie fresh = trie(2);
+		for (int i = 0; i < keys.size(); i++) {
+			if (i % 3 != 0) fresh.addWithoutRanking(keys.get(i), i);
+		}
+		fresh.recomputeAll();
+
+		assertThat(trie.nodeCount()).isEqualTo(fresh.nodeCount());
+		assertThat(trie.estimatedBytes()).isEqualTo(fresh.estimatedBytes());
+	}
+}
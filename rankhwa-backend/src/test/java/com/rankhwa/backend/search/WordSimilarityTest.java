@@ -0,0 +1,65 @@
+package com.rankhwa.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+// Expected values are what Postgres 16 answers for SELECT word_similarity(query, text) in a
+// UTF-8 database, so the index ranks and filters exactly like SEARCH_FILTER
+class WordSimilarityTest {
+
+	static Stream<Arguments> postgres() {
+		return Stream.of(
+				arguments("word", "two words", 0.8f),
+				arguments("solo leveling", "solo leveling", 1f),
+				// multi-word text, as search_text joins the title variants
+				arguments("solo levelling", "solo leveling\nonly i level up\n\n", 0.8125f),
+				arguments("levle", "solo leveling\nonly i level up\n\n", 0.5f),
+				arguments("tower of god", "the tower of the god\n\n\n", 0.8125f),
+				arguments("omniscent reader", "omniscient reader's viewpoint\n\n\n", 0.75f),
+				arguments("high scool", "god of high school", 0.64285713f),
+				arguments("god", "god of high school", 1f),
+				arguments("level up", "level level up up", 1f),
+				arguments("aaa", "aaaa aaa", 1f),
+				// short words: padding is two blanks in front, one behind
+				arguments("a", "a b c", 1f),
+				arguments("ab", "abc", 0.6666667f),
+				arguments("x", "the boxer", 0f),
+				arguments("boxer", "the boxer", 1f),
+				arguments("bxoer", "the boxer", 0.2f),
+				// punctuation splits words, digits belong to them
+				arguments("solo-leveling!!", "solo leveling", 1f),
+				arguments("2", "level 2 reborn", 1f),
+				arguments("ab12", "xab12y", 0.4f),
+				arguments("ÄRGER", "ärger im paradies", 1f),
+				arguments("quantum", "solo leveling", 0f),
+				// Hangul syllables are letters
+				arguments("나 혼자만", "나 혼자만 레벨업", 1f),
+				arguments("혼자만 레벨", "나 혼자만 레벨업\nsolo leveling", 0.85714287f),
+				arguments("레벨업", "나 혼자만 레벨업", 1f),
+				arguments("전지적", "전지적 독자 시점", 1f),
+				arguments("독자시점", "전지적 독자 시점", 0.4f));
+	}
+
+	@ParameterizedTest
+	@MethodSource("postgres")
+	void matchesPostgres(String query, String text, float expected) {
+		float actual = WordSimilarity.wordSimilarity(WordSimilarity.trigrams(query), WordSimilarity.trigrams(text));
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	void matchesIsTheThresholdOfTheOperator() {
+		// <% is word_similarity >= 0.6
+		assertThat(WordSimilarity.matches(WordSimilarity.trigrams("ab"), WordSimilarity.trigrams("abc"))).isTrue();
+		assertThat(WordSimilarity.matches(WordSimilarity.trigrams("levle"), WordSimilarity.trigrams("solo leveling"))).isFalse();
+		// no trigrams, as pg_trgm matches nothing for them
+		assertThat(WordSimilarity.matches(WordSimilarity.trigrams("!!"), WordSimilarity.trigrams("!!"))).isFalse();
+	}
+}
@@ -0,0 +1,127 @@
+package com.rankhwa.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Calls are refused when they are submitted, not after waiting out the timeout
+class PasswordHasherTest {
+
+	// stands in for BCrypt: takes hashMs, and like BCrypt ignores interrupts
+	static final class SlowEncoder implements PasswordEncoder {
+		final long hashMs;
+		volatile CountDownLatch gate = new CountDownLatch(0);
+
+		SlowEncoder(long hashMs) {
+			this.hashMs = hashMs;
+		}
+
+		@Override
+		public String encode(CharSequence raw) {
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(hashMs);
+			boolean interrupted = false;
+			while (System.nanoTime() < end || gate.getCount() > 0) {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) Thread.currentThread().interrupt();
+			return "$2a$10$" + raw;
+		}
+
+		@Override
+		public boolean matches(CharSequence raw, String encoded) {
+			return encode(raw).equals(encoded);
+		}
+	}
+
+	enum Outcome { HASHED, REFUSED, TIMED_OUT }
+
+	PasswordHasher hasher;
+	ExecutorService clients = Executors.newFixedThreadPool(16);
+
+	PasswordHasher hasher(SlowEncoder encoder, long timeoutMs) {
+		hasher = new PasswordHasher(encoder, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(hasher, "strength", 10);
+		ReflectionTestUtils.setField(hasher, "threads", 1);
+		ReflectionTestUtils.setField(hasher, "queueCapacity", 64);
+		ReflectionTestUtils.setField(hasher, "timeoutMs", timeoutMs);
+		hasher.start();
+		return hasher;
+	}
+
+	@AfterEach
+	void tearDown() {
+		clients.shutdownNow();
+		if (hasher != null) hasher.stop();
+	}
+
+	@Test
+	void refusesAtSubmissionWhatTheBacklogWouldDelayPastTheTimeout() {
+		hasher(new SlowEncoder(100), 550);
+
+		// one thread hashes five in the timeout; the rest are turned away without waiting
+		Map<Outcome, Long> outcomes = attempt(8);
+		assertThat(outcomes.get(Outcome.HASHED)).isEqualTo(5);
+		assertThat(outcomes.get(Outcome.REFUSED)).isEqualTo(3);
+	}
+
+	@Test
+	void aHashStillRunningAtTheTimeoutKeepsItsCapacity() {
+		SlowEncoder encoder = new SlowEncoder(100);
+		hasher(encoder, 550);
+		encoder.gate = new CountDownLatch(1);
+
+		Map<Outcome, Long> first = attempt(7);
+		assertThat(first.get(Outcome.TIMED_OUT)).isEqualTo(5);
+		assertThat(first.get(Outcome.REFUSED)).isEqualTo(2);
+
+		// the queued four were withdrawn, the running one still holds the thread
+		Map<Outcome, Long> second = attempt(7);
+		assertThat(second.get(Outcome.TIMED_OUT)).isEqualTo(4);
+		assertThat(second.get(Outcome.REFUSED)).isEqualTo(3);
+
+		encoder.gate.countDown();
+		assertThat(attempt(1).get(Outcome.HASHED)).isEqualTo(1);
+	}
+
+	// n calls at once; a refusal counts only when it came well before the 550 ms timeout
+	Map<Outcome, Long> attempt(int n) {
+		List<CompletableFuture<Outcome>> calls = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			calls.add(CompletableFuture.supplyAsync(() -> {
+				long start = System.nanoTime();
+				try {
+					hasher.hash("test", "pw");
+					return Outcome.HASHED;
+				} catch (ResponseStatusException e) {
+					assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+					long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					return waited < 275 ? Outcome.REFUSED : Outcome.TIMED_OUT;
+				}
+			}, clients));
+		}
+		Map<Outcome, Long> out = new EnumMap<>(Outcome.class);
+		for (Outcome o : Outcome.values()) out.put(o, 0L);
+		calls.forEach(c -> out.merge(c.join(), 1L, Long::sum));
+		return out;
+	}
+}
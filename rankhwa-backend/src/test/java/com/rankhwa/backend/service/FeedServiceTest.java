@@ -0,0 +1,86 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.dto.ManhwaSummary;
+import com.rankhwa.backend.repository.ListItemRepository;
+import com.rankhwa.backend.repository.RatingRepository;
+import com.rankhwa.backend.search.Leaderboards;
+import com.rankhwa.backend.search.Leaderboards.Ranking;
+import com.rankhwa.backend.search.ManhwaSearchService;
+import com.rankhwa.backend.search.SimilarTitles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// What the feed falls back to when the history yields too few liked candidates
+class FeedServiceTest {
+	static final long USER = 7L;
+
+	RatingRepository ratings = mock(RatingRepository.class);
+	ListItemRepository listItems = mock(ListItemRepository.class);
+	SimilarTitles similar = mock(SimilarTitles.class);
+	Leaderboards leaderboards = mock(Leaderboards.class);
+	ManhwaSearchService search = mock(ManhwaSearchService.class);
+	FeedService feed;
+
+	@BeforeEach
+	void setUp() {
+		when(listItems.findManhwaIdsByUserId(USER)).thenReturn(List.of());
+		when(similar.neighborhood(anyLong())).thenReturn(new SimilarTitles.Neighborhood(new long[0], new float[0]));
+		when(leaderboards.top(eq(Ranking.POPULAR), anyString(), anyInt())).thenReturn(List.of());
+		when(leaderboards.top(eq(Ranking.POPULAR), eq("all"), anyInt())).thenAnswer(i ->
+				LongStream.rangeClosed(1, 6).limit(i.<Integer>getArgument(2)).mapToObj(FeedServiceTest::summary).toList());
+		when(search.summaries(anyList())).thenAnswer(i -> i.<List<Long>>getArgument(0).stream()
+				.map(FeedServiceTest::summary).toList());
+
+		feed = new FeedService(ratings, listItems, similar, leaderboards, search, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(feed, "feedSize", 4);
+		ReflectionTestUtils.setField(feed, "maxSeeds", 50);
+		ReflectionTestUtils.setField(feed, "maxCandidates", 500);
+		ReflectionTestUtils.setField(feed, "genreCandidates", 50);
+		ReflectionTestUtils.setField(feed, "genreWeight", 0.3);
+		ReflectionTestUtils.setField(feed, "listWeight", 0.5);
+		ReflectionTestUtils.setField(feed, "maxUsers", 10L);
+		ReflectionTestUtils.setField(feed, "ttlMs", 60_000L);
+		ReflectionTestUtils.invokeMethod(feed, "init");
+	}
+
+	@Test
+	void withoutHistoryTheFeedIsThePopularTitles() {
+		when(ratings.findAllScores(USER)).thenReturn(List.of());
+		assertThat(ids(feed.feed(USER, 10))).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void onlyLowScoresStillGetThePopularTitlesTheyHaveNotRated() {
+		when(ratings.findAllScores(USER)).thenReturn(List.of(score(2L, 3), score(4L, 5)));
+		assertThat(ids(feed.feed(USER, 10))).containsExactly(1L, 3L, 5L, 6L);
+	}
+
+	static RatingRepository.ScoreRow score(long id, int score) {
+		return new RatingRepository.ScoreRow() {
+			@Override public Long getManhwaId() { return id; }
+			@Override public int getScore() { return score; }
+		};
+	}
+
+	static ManhwaSummary summary(long id) {
+		return new ManhwaSummary(id, "t" + id, null, 8.0, 10, null, null, null, List.of("Action"), null, null, null);
+	}
+
+	static List<Long> ids(List<ManhwaSummary> page) {
+		return page.stream().map(ManhwaSummary::id).toList();
+	}
+}
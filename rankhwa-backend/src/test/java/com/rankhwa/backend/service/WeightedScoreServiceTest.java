@@ -0,0 +1,87 @@
+package com.rankhwa.backend.service;
+
+import com.rankhwa.backend.repository.ManhwaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// When a refresh adopts a new catalog mean, and so rewrites every score
+class WeightedScoreServiceTest {
+
+	ManhwaRepository repository = mock(ManhwaRepository.class);
+	ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+	WeightedScoreService service;
+
+	@BeforeEach
+	void setUp() {
+		TransactionTemplate tx = mock(TransactionTemplate.class);
+		when(tx.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		service = new WeightedScoreService(repository, events, tx);
+		ReflectionTestUtils.setField(service, "priorVotes", 50);
+		ReflectionTestUtils.setField(service, "defaultMean", 5.0);
+		ReflectionTestUtils.setField(service, "tolerance", 0.01);
+	}
+
+	@Test
+	void startupResumesTheStoredMeanWithoutTouchingScores() {
+		when(repository.findAppliedPriorMean(50)).thenReturn(7.2);
+		service.init();
+		assertThat(service.mean()).isEqualTo(7.2);
+		verify(repository, never()).recomputeWeightedScores(anyInt(), anyDouble());
+	}
+
+	@Test
+	void smallShiftsKeepTheHeldMean() {
+		when(repository.findAppliedPriorMean(50)).thenReturn(7.2);
+		service.init();
+
+		when(repository.findGlobalMeanRating()).thenReturn(7.205);
+		service.refresh();
+		assertThat(service.mean()).isEqualTo(7.2);
+		verify(repository).recomputeWeightedScores(50, 7.2);
+
+		when(repository.findGlobalMeanRating()).thenReturn(7.3);
+		service.refresh();
+		assertThat(service.mean()).isEqualTo(7.3);
+		verify(repository).recomputeWeightedScores(50, 7.3);
+		verify(repository).saveAppliedPrior(50, 7.3);
+	}
+
+	@Test
+	void withoutAStoredMeanTheFirstRefreshAdoptsWhatItReads() {
+		when(repository.findAppliedPriorMean(50)).thenReturn(null);
+		service.init();
+		assertThat(service.mean()).isEqualTo(5.0);
+
+		when(repository.findGlobalMeanRating()).thenReturn(5.004);
+		service.refresh();
+		assertThat(service.mean()).isEqualTo(5.004);
+		verify(repository).saveAppliedPrior(50, 5.004);
+	}
+
+	@Test
+	void onlyRewrittenRowsReloadTheIndex() {
+		when(repository.findAppliedPriorMean(50)).thenReturn(null);
+		service.init();
+		when(repository.findGlobalMeanRating()).thenReturn(6.0);
+		when(repository.recomputeWeightedScores(50, 6.0)).thenReturn(0);
+		service.refresh();
+		verify(events, never()).publishEvent(any(Object.class));
+
+		when(repository.recomputeWeightedScores(50, 6.0)).thenReturn(3);
+		service.refresh();
+		verify(events).publishEvent(new WeightedScoresRecomputedEvent(3));
+	}
+}
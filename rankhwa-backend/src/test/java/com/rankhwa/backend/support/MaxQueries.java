@@ -0,0 +1,37 @@
+package com.rankhwa.backend.support;
+
+import com.rankhwa.backend.config.QueryBudget;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body runs more than {@link #value} JDBC statements on the test thread,
+ * authentication included; {@code @BeforeEach} setup is not counted.
+ *
+ * Unset, the limit is the {@link QueryBudget} of the handler the body's MockMvc requests reached
+ * (the smallest, if several), so test and handler share one number. The test class records
+ * those handlers with {@code @Import(MaxQueries.Handlers.class)}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(MaxQueriesExtension.class)
+public @interface MaxQueries {
+	int HANDLER_BUDGET = -1;
+
+	int value() default HANDLER_BUDGET;
+
+	@TestConfiguration
+	class Handlers {
+		@Bean
+		MockMvcBuilderCustomizer recordHandlers() {
+			return builder -> builder.alwaysDo(result -> MaxQueriesExtension.served(result.getHandler()));
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.rankhwa.backend.support;
+
+import com.rankhwa.backend.config.QueryBudget;
+import com.rankhwa.backend.config.QueryCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class MaxQueriesExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(MaxQueriesExtension.class);
+	// handlers that served the running test's requests
+	private static final ThreadLocal<List<Object>> HANDLERS = new ThreadLocal<>();
+
+	static void served(Object handler) {
+		List<Object> handlers = HANDLERS.get();
+		if (handlers != null) handlers.add(handler);
+	}
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		HANDLERS.set(new ArrayList<>());
+		context.getStore(NAMESPACE).put(context.getUniqueId(), QueryCounter.start());
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		QueryCounter counter = context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryCounter.class);
+		counter.close();
+		List<Object> handlers = HANDLERS.get();
+		HANDLERS.remove();
+
+		int max = context.getRequiredTestMethod().getAnnotation(MaxQueries.class).value();
+		if (max == MaxQueries.HANDLER_BUDGET) max = handlerBudget(handlers);
+		if (counter.count() > max) {
+			throw new AssertionFailedError("Expected at most " + max + " JDBC statements but ran " + counter.count(),
+					max, counter.count());
+		}
+	}
+
+	private static int handlerBudget(List<Object> handlers) {
+		int min = Integer.MAX_VALUE;
+		for (Object h : handlers) {
+			if (h instanceof HandlerMethod m && m.hasMethodAnnotation(QueryBudget.class)) {
+				min = Math.min(min, m.getMethodAnnotation(QueryBudget.class).statements());
+			}
+		}
+		if (min == Integer.MAX_VALUE) {
+			throw new AssertionFailedError("@MaxQueries without a value, but no handler with a @QueryBudget served "
+					+ "the test (is MaxQueries.Handlers imported?)");
+		}
+		return min;
+	}
+}
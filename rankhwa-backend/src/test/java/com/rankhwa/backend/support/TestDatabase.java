@@ -0,0 +1,61 @@
+package com.rankhwa.backend.support;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+
+/**
+ * Database of the Spring tests, which insert and delete rows: the one at
+ * rankhwa.test.datasource.url (or TEST_DATASOURCE_URL, with _USERNAME and _PASSWORD) when set,
+ * otherwise a Postgres container started once per test JVM. Never the spring.datasource one.
+ * Also supplies a JWT secret when none is set.
+ *
+ * Use with {@code @ContextConfiguration(initializers = TestDatabase.class)}.
+ */
+public class TestDatabase implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+	private static PostgreSQLContainer<?> container;
+
+	@Override
+	public void initialize(ConfigurableApplicationContext context) {
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("testDatabase", Map.of(
+				"spring.datasource.url", url(),
+				"spring.datasource.username", username(),
+				"spring.datasource.password", password())));
+		if (System.getenv("JWT_SECRET") == null && System.getProperty("JWT_SECRET") == null) {
+			System.setProperty("JWT_SECRET", "test-only-secret-0123456789abcdef0123456789");
+		}
+	}
+
+	public static String url() {
+		String url = setting("rankhwa.test.datasource.url", "TEST_DATASOURCE_URL");
+		return url != null ? url : container().getJdbcUrl();
+	}
+
+	public static String username() {
+		if (setting("rankhwa.test.datasource.url", "TEST_DATASOURCE_URL") == null) return container().getUsername();
+		String user = setting("rankhwa.test.datasource.username", "TEST_DATASOURCE_USERNAME");
+		return user != null ? user : "postgres";
+	}
+
+	public static String password() {
+		if (setting("rankhwa.test.datasource.url", "TEST_DATASOURCE_URL") == null) return container().getPassword();
+		String password = setting("rankhwa.test.datasource.password", "TEST_DATASOURCE_PASSWORD");
+		return password != null ? password : "";
+	}
+
+	private static synchronized PostgreSQLContainer<?> container() {
+		if (container == null) {
+			container = new PostgreSQLContainer<>("postgres:16-alpine");
+			container.start(); // stopped with the JVM
+		}
+		return container;
+	}
+
+	private static String setting(String property, String env) {
+		String v = System.getProperty(property);
+		return v != null ? v : System.getenv(env);
+	}
+}
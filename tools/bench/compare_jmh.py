@@ -0,0 +1,62 @@
+"""
+Compare two JMH JSON result files (mvn -Pjmh ... -> rankhwa-backend/target/jmh-result.json)
+and fail when any benchmark got slower than the threshold.
+
+    python compare_jmh.py baseline.json current.json [--threshold 10]
+"""
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        runs = json.load(f)
+    out = {}
+    for r in runs:
+        params = ",".join(f"{k}={v}" for k, v in sorted((r.get("params") or {}).items()))
+        key = (r["benchmark"].rsplit(".", 2)[-2] + "." + r["benchmark"].rsplit(".", 1)[-1], r["mode"], params)
+        out[key] = r["primaryMetric"]
+    return out
+
+
+def change_pct(mode, old, new):
+    # throughput: higher is better; every other mode measures time, lower is better
+    if old == 0:
+        return 0.0
+    delta = (new - old) / old * 100
+    return -delta if mode == "thrpt" else delta
+
+
+def main():
+    ap = argparse.ArgumentParser()
+    ap.add_argument("baseline")
+    ap.add_argument("current")
+    ap.add_argument("--threshold", type=float, default=10.0, help="allowed slowdown in percent")
+    args = ap.parse_args()
+
+    base, cur = load(args.baseline), load(args.current)
+    regressions = 0
+    print(f"{'benchmark':55} {'mode':7} {'baseline':>12} {'current':>12} {'unit':>10} {'slower':>8}")
+    for key in sorted(cur):
+        name, mode, params = key
+        label = name + (f" [{params}]" if params else "")
+        now = cur[key]
+        if key not in base:
+            print(f"{label:55} {mode:7} {'-':>12} {now['score']:12.3f} {now['scoreUnit']:>10}      new")
+            continue
+        then = base[key]
+        pct = change_pct(mode, then["score"], now["score"])
+        flag = ""
+        if pct > args.threshold:
+            regressions += 1
+            flag = "  REGRESSION"
+        print(f"{label:55} {mode:7} {then['score']:12.3f} {now['score']:12.3f} {now['scoreUnit']:>10} {pct:7.1f}%{flag}")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) slower than {args.threshold}%", file=sys.stderr)
+        sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
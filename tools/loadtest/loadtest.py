@@ -0,0 +1,194 @@
+"""
+Closed-loop HTTP load test for the backend: N concurrent clients each send a request as soon
+as their previous one is answered, for a fixed duration. Reports throughput, latency
+percentiles and status codes, and compares two saved runs (e.g. platform vs virtual threads).
+Standard library only.
+
+    python loadtest.py run --scenario mixed --concurrency 800 --duration 30 --out platform.json
+    python loadtest.py run ... --out virtual.json      # after restarting with SPRING_THREADS_VIRTUAL_ENABLED=true
+    python loadtest.py compare platform.json virtual.json
+"""
+import argparse
+import asyncio
+import json
+import random
+import sys
+import time
+from urllib.parse import urlsplit
+
+SORTS = ["rating", "weighted", "date", "title"]
+
+
+def scenario_requests(name, max_id, token):
+    auth = {"Authorization": f"Bearer {token}"} if token else {}
+
+    def catalog():
+        return "GET", f"/manhwa?sort={random.choice(SORTS)}&page={random.randrange(20)}&size=20", None, {}
+
+    def detail():
+        return "GET", f"/manhwa/{random.randrange(1, max_id + 1)}", None, {}
+
+    def search():
+        return "GET", f"/manhwa?query={random.choice(['solo', 'level', 'tower', 'king', 'love'])}", None, {}
+
+    def me():
+        return "GET", "/lists", None, auth
+
+    choices = {
+        "catalog": [catalog],
+        "detail": [detail],
+        "search": [search],
+        "me": [me],
+        # roughly the production read mix; the authenticated part only with --token
+        "mixed": [catalog, catalog, detail, detail, detail, search] + ([me] if token else []),
+    }[name]
+    return lambda: random.choice(choices)()
+
+
+async def send(reader, writer, host, method, path, body, headers):
+    lines = [f"{method} {path} HTTP/1.1", f"Host: {host}", "Connection: keep-alive"]
+    lines += [f"{k}: {v}" for k, v in headers.items()]
+    data = b""
+    if body is not None:
+        data = json.dumps(body).encode()
+        lines += ["Content-Type: application/json", f"Content-Length: {len(data)}"]
+    writer.write(("\r\n".join(lines) + "\r\n\r\n").encode() + data)
+    await writer.drain()
+
+    status = int((await reader.readline()).split()[1])
+    length, chunked, close = 0, False, False
+    while True:
+        line = (await reader.readline()).strip()
+        if not line:
+            break
+        k, _, v = line.decode("latin-1").partition(":")
+        k, v = k.strip().lower(), v.strip().lower()
+        if k == "content-length":
+            length = int(v)
+        elif k == "transfer-encoding" and "chunked" in v:
+            chunked = True
+        elif k == "connection" and v == "close":
+            close = True
+    if chunked:
+        while True:
+            size = int((await reader.readline()).split(b";")[0], 16)
+            await reader.readexactly(size + 2)
+            if size == 0:
+                break
+    elif length:
+        await reader.readexactly(length)
+    return status, close
+
+
+async def client(url, next_request, deadline, warmup_end, results):
+    parts = urlsplit(url)
+    host, port = parts.hostname, parts.port or 80
+    conn = None
+    while time.monotonic() < deadline:
+        method, path, body, headers = next_request()
+        start = time.monotonic()
+        try:
+            if conn is None:
+                conn = await asyncio.open_connection(host, port)
+            status, close = await send(*conn, parts.netloc, method, path, body, headers)
+        except (OSError, asyncio.IncompleteReadError, ValueError, IndexError):
+            status, close = "io-error", True
+        end = time.monotonic()
+        if close and conn is not None:
+            conn[1].close()
+            conn = None
+        if start >= warmup_end:
+            results.append((status, end - start))
+        if status == "io-error":
+            await asyncio.sleep(0.05)
+    if conn is not None:
+        conn[1].close()
+
+
+def percentile(sorted_values, p):
+    if not sorted_values:
+        return 0.0
+    return sorted_values[min(len(sorted_values) - 1, int(p / 100 * len(sorted_values)))]
+
+
+async def run(args):
+    next_request = scenario_requests(args.scenario, args.max_id, args.token)
+    results = []
+    now = time.monotonic()
+    warmup_end = now + args.warmup
+    deadline = warmup_end + args.duration
+    await asyncio.gather(*(client(args.url, next_request, deadline, warmup_end, results)
+                           for _ in range(args.concurrency)))
+
+    latencies = sorted(t * 1000 for s, t in results if s == 200)
+    statuses = {}
+    for s, _ in results:
+        statuses[str(s)] = statuses.get(str(s), 0) + 1
+    return {
+        "label": args.label or args.scenario,
+        "scenario": args.scenario,
+        "concurrency": args.concurrency,
+        "duration_s": args.duration,
+        "requests": len(results),
+        "ok_per_s": len(latencies) / args.duration,
+        "latency_ms": {p: percentile(latencies, float(p)) for p in ("50", "90", "99", "99.9")},
+        "statuses": statuses,
+    }
+
+
+def show(r):
+    lat = r["latency_ms"]
+    print(f"{r['label']}: {r['scenario']} x{r['concurrency']} for {r['duration_s']}s")
+    print(f"  ok/s {r['ok_per_s']:.1f}   p50 {lat['50']:.1f} ms   p90 {lat['90']:.1f} ms   "
+          f"p99 {lat['99']:.1f} ms   p99.9 {lat['99.9']:.1f} ms")
+    print("  statuses " + ", ".join(f"{k}: {v}" for k, v in sorted(r["statuses"].items())))
+
+
+def compare(a, b):
+    print(f"{'':14} {a['label']:>14} {b['label']:>14} {'change':>9}")
+    rows = [("ok/s", a["ok_per_s"], b["ok_per_s"])]
+    rows += [(f"p{p} ms", a["latency_ms"][p], b["latency_ms"][p]) for p in ("50", "90", "99", "99.9")]
+    for name, x, y in rows:
+        pct = (y - x) / x * 100 if x else 0.0
+        print(f"{name:14} {x:14.1f} {y:14.1f} {pct:8.1f}%")
+    sys.stdout.flush()
+    for r in (a, b):
+        bad = sum(v for k, v in r["statuses"].items() if k != "200")
+        if bad:
+            print(f"{r['label']}: {bad} non-200 responses {r['statuses']}", file=sys.stderr)
+
+
+def main():
+    ap = argparse.ArgumentParser()
+    sub = ap.add_subparsers(dest="command", required=True)
+
+    r = sub.add_parser("run")
+    r.add_argument("--url", default="http://localhost:8080")
+    r.add_argument("--scenario", choices=["catalog", "detail", "search", "me", "mixed"], default="mixed")
+    r.add_argument("--concurrency", type=int, default=400, help="concurrent keep-alive clients")
+    r.add_argument("--duration", type=float, default=30, help="measured seconds")
+    r.add_argument("--warmup", type=float, default=5, help="unmeasured seconds first")
+    r.add_argument("--max-id", type=int, default=3000, help="detail ids are drawn from 1..max-id")
+    r.add_argument("--token", help="JWT for the authenticated scenarios")
+    r.add_argument("--label")
+    r.add_argument("--out", help="write the summary as JSON")
+
+    c = sub.add_parser("compare")
+    c.add_argument("baseline")
+    c.add_argument("current")
+    args = ap.parse_args()
+
+    if args.command == "compare":
+        with open(args.baseline, encoding="utf-8") as f, open(args.current, encoding="utf-8") as g:
+            compare(json.load(f), json.load(g))
+        return
+
+    result = asyncio.run(run(args))
+    show(result)
+    if args.out:
+        with open(args.out, "w", encoding="utf-8") as f:
+            json.dump(result, f, indent=2)
+
+
+if __name__ == "__main__":
+    main()
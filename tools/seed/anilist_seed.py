@@ -96,7 +96,16 @@ def upsert(cur: psycopg.Cursor, m: dict, page: int):
               title_english = COALESCE(EXCLUDED.title_english, manhwa.title_english),
               banner_url    = COALESCE(EXCLUDED.banner_url,    manhwa.banner_url), -- NEW
               chapters      = COALESCE(EXCLUDED.chapters,      manhwa.chapters),   -- NEW
-              genres        = EXCLUDED.genres
+              genres        = EXCLUDED.genres,
+              row_version   = manhwa.row_version + 1,  -- ETag / Last-Modified of GET /manhwa/{id}
+              updated_at    = now()
+          WHERE (manhwa.title_native, manhwa.title_english, manhwa.banner_url, manhwa.chapters, manhwa.genres)
+                IS DISTINCT FROM
+                (COALESCE(EXCLUDED.title_native,  manhwa.title_native),
+                 COALESCE(EXCLUDED.title_english, manhwa.title_english),
+                 COALESCE(EXCLUDED.banner_url,    manhwa.banner_url),
+                 COALESCE(EXCLUDED.chapters,      manhwa.chapters),
+                 EXCLUDED.genres)
         """,
         dict(
             id=m["id"],